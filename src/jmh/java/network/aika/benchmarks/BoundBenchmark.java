@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static network.aika.utils.Bound.LOWER;
+import static network.aika.utils.Bound.UPPER;
+
+/**
+ * Measures {@link network.aika.utils.Bound#probability(double, double)}, which is evaluated for every surprisal and
+ * information gain update. The varying variant shifts the frequencies by a small fraction on every call, so that the
+ * quantile caches are mostly missed.
+ *
+ * @author Lukas Molzberger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BoundBenchmark {
+
+    private static final int FREQUENCIES = 64;
+
+    @Param({"10", "1000", "100000"})
+    public double n;
+
+    private double[] frequencies;
+    private long counter;
+
+    @Setup
+    public void setup() {
+        frequencies = new double[FREQUENCIES];
+        for(int i = 0; i < FREQUENCIES; i++)
+            frequencies[i] = (n * i) / FREQUENCIES;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2 * FREQUENCIES)
+    public void probability(Blackhole bh) {
+        for(double f: frequencies) {
+            bh.consume(UPPER.probability(f, n));
+            bh.consume(LOWER.probability(f, n));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2 * FREQUENCIES)
+    public void probabilityVarying(Blackhole bh) {
+        double shift = (counter++ & 0xFFFF) * 1e-6;
+        for(double f: frequencies) {
+            bh.consume(UPPER.probability(f + shift, n));
+            bh.consume(LOWER.probability(f + shift, n));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2 * FREQUENCIES)
+    public void exactProbability(Blackhole bh) {
+        for(double f: frequencies) {
+            bh.consume(UPPER.exactProbability(f, n));
+            bh.consume(LOWER.exactProbability(f, n));
+        }
+    }
+}
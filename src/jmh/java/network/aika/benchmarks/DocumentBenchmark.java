@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.benchmarks;
+
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static network.aika.utils.TestUtils.getConfig;
+
+/**
+ * Processes synthetic documents of growing size end to end with {@link Document#processTokens(Iterable)}, followed
+ * by the final mode and the post processing. With {@code arena} set, the field links of each document are allocated
+ * from a {@link network.aika.fields.FieldArena} and released in bulk when the document is closed. With
+ * {@code adaptiveTolerance} set, negligible updates of the nets are held back.
+ *
+ * @author Lukas Molzberger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class DocumentBenchmark {
+
+    @Param({"16", "128", "1024"})
+    public int tokens;
+
+    @Param({"false", "true"})
+    public boolean arena;
+
+    @Param({"false", "true"})
+    public boolean adaptiveTolerance;
+
+    private TextModel model;
+
+    private List<String> corpus;
+    private String text;
+
+    @Setup
+    public void setup() {
+        model = new TextModel();
+        model.init();
+
+        for(int i = 0; i < SyntheticCorpus.VOCABULARY_SIZE; i++)
+            model.lookupToken(SyntheticCorpus.getWord(i));
+
+        corpus = SyntheticCorpus.createTokens(tokens, 42);
+        text = SyntheticCorpus.toText(corpus);
+    }
+
+    @Benchmark
+    public int processTokens() {
+        Document doc = new Document(model, text);
+        doc.setConfig(
+                getConfig()
+                        .setTrainingEnabled(false)
+                        .setArenaEnabled(arena)
+                        .setAdaptiveToleranceEnabled(adaptiveTolerance)
+        );
+
+        doc.processTokens(corpus);
+        doc.processFinalMode();
+        doc.postProcessing();
+
+        int activations = doc.getActivations().size();
+        doc.close();
+        return activations;
+    }
+}
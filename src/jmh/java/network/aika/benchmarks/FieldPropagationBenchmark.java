@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.benchmarks;
+
+import network.aika.Config;
+import network.aika.Thought;
+import network.aika.fields.Field;
+import network.aika.fields.FieldOutput;
+import network.aika.fields.FieldUpdateBatch;
+import network.aika.fields.Fields;
+import network.aika.neuron.activation.Element;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static network.aika.utils.TestUtils.getConfig;
+
+/**
+ * Propagates updates through a chain of fields. Each stage resembles the wiring of an activation: the value of the
+ * previous stage is multiplied by a weight, summed up in a net field and passed through an activation function.
+ *
+ * @author Lukas Molzberger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FieldPropagationBenchmark {
+
+    @Param({"4", "16", "64"})
+    public int stages;
+
+    @Param({"false", "true"})
+    public boolean batched;
+
+    private FieldUpdateBatch batch;
+
+    private Field head;
+    private Field tail;
+
+    private double sign = 1.0;
+
+    @Setup
+    public void setup() {
+        Document doc = new Document(new TextModel(), "");
+        doc.setConfig(
+                getConfig()
+                        .setBatchedPropagationEnabled(batched)
+        );
+        batch = doc.getFieldUpdateBatch();
+
+        // The fields of a thought are only batched, if they belong to one of its elements.
+        Element e = new Element() {
+            @Override
+            public long getFired() {
+                return 0;
+            }
+
+            @Override
+            public Thought getThought() {
+                return doc;
+            }
+
+            @Override
+            public Config getConfig() {
+                return doc.getConfig();
+            }
+
+            @Override
+            public int compareTo(Object o) {
+                return 0;
+            }
+        };
+
+        head = new Field(e, "head", 0.0);
+
+        FieldOutput prev = head;
+        for(int i = 0; i < stages; i++) {
+            Field weight = new Field(e, "weight-" + i, 1.0);
+            Field net = new Field(e, "net-" + i, 0.0);
+            Field value = new Field(e, "value-" + i);
+
+            Fields.mul("weighted-input-" + i, prev, weight, net);
+            Fields.func("activation-function-" + i, net, x -> x, value);
+
+            prev = value;
+        }
+        tail = (Field) prev;
+    }
+
+    @Benchmark
+    public double propagate() {
+        if(batch != null)
+            batch.run(this::update);
+        else
+            update();
+
+        return tail.getCurrentValue();
+    }
+
+    private void update() {
+        head.receiveUpdate(0, sign);
+        sign = -sign;
+    }
+}
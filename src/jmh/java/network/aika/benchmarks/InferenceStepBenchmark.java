@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.benchmarks;
+
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import network.aika.text.TokenActivation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static network.aika.Thought.NO_DEADLINE;
+import static network.aika.Thought.NO_STEP_LIMIT;
+import static network.aika.steps.Phase.PROCESSING;
+import static network.aika.utils.TestUtils.getConfig;
+
+/**
+ * Measures the execution of the inference steps, mostly {@link network.aika.steps.activation.Linking} and
+ * {@link network.aika.steps.activation.Propagate}. The tokens are added to a fresh document outside of the
+ * measurement, so that only the processing of the queued steps is timed.
+ *
+ * @author Lukas Molzberger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class InferenceStepBenchmark {
+
+    @Param({"4", "16"})
+    public int tokens;
+
+    private TextModel model;
+    private List<String> corpus;
+
+    private Document doc;
+
+    @Setup
+    public void setup() {
+        model = new TextModel();
+        model.init();
+
+        corpus = SyntheticCorpus.createTokens(tokens, 7);
+        for(String t: corpus)
+            model.lookupToken(t);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareDocument() {
+        doc = new Document(model, SyntheticCorpus.toText(corpus));
+        doc.setConfig(
+                getConfig()
+                        .setTrainingEnabled(false)
+        );
+
+        int i = 0;
+        TokenActivation lastToken = null;
+        for(String t: corpus) {
+            int j = i + t.length();
+            TokenActivation currentToken = doc.addToken(t, i, j);
+            TokenActivation.addRelation(lastToken, currentToken);
+
+            lastToken = currentToken;
+            i = j + 1;
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeDocument() {
+        doc.close();
+    }
+
+    @Benchmark
+    public Object processSteps() {
+        return doc.process(PROCESSING, NO_STEP_LIMIT, NO_DEADLINE);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.benchmarks;
+
+import network.aika.neuron.Neuron;
+import network.aika.text.TextModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes and deserializes a token neuron including its synapses, as done when neurons are suspended and
+ * reactivated.
+ *
+ * @author Lukas Molzberger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class NeuronSerializationBenchmark {
+
+    private TextModel model;
+    private Neuron neuron;
+    private byte[] data;
+
+    @Setup
+    public void setup() throws IOException {
+        model = new TextModel();
+        model.init();
+
+        neuron = model.lookupToken("w0");
+        data = write();
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(256);
+        try (DataOutputStream dos = new DataOutputStream(baos)) {
+            neuron.write(dos);
+        }
+        return baos.toByteArray();
+    }
+
+    @Benchmark
+    public Neuron read() throws Exception {
+        try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(data))) {
+            return Neuron.read(dis, model);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.benchmarks;
+
+import network.aika.Config;
+import network.aika.Thought;
+import network.aika.neuron.activation.Element;
+import network.aika.steps.*;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static network.aika.Thought.NO_DEADLINE;
+import static network.aika.Thought.NO_STEP_LIMIT;
+import static network.aika.neuron.activation.Timestamp.MAX;
+import static network.aika.neuron.activation.Timestamp.NOT_SET;
+
+/**
+ * Fills the step queue with steps of random phases, firing times and linking orders and drains it again, once on
+ * the bare queue implementations and once through the bookkeeping of {@link Thought#addStep(Step)} and
+ * {@link Thought#process(Phase, long, long)}.
+ *
+ * @author Lukas Molzberger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StepQueueBenchmark {
+
+    private static final int STEPS = 1024;
+
+    @Param({"tree", "bucket"})
+    public String queue;
+
+    private StepQueue stepQueue;
+    private BenchmarkStep[] queueSteps;
+
+    private Document doc;
+    private BenchmarkStep[] thoughtSteps;
+
+    @Setup
+    public void setup() {
+        stepQueue = createStepQueue();
+        queueSteps = createSteps(null);
+
+        TextModel m = new TextModel();
+        doc = new Document(m, "");
+        doc.setStepQueue(createStepQueue());
+        thoughtSteps = createSteps(doc);
+    }
+
+    @TearDown
+    public void tearDown() {
+        doc.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public int addPoll() {
+        for(BenchmarkStep s: queueSteps)
+            stepQueue.add(s);
+
+        int count = 0;
+        while(stepQueue.poll() != null)
+            count++;
+
+        return count;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public ProcessingStatus addProcess() {
+        for(BenchmarkStep s: thoughtSteps)
+            doc.addStep(s);
+
+        return doc.process(Phase.POST_PROCESSING, NO_STEP_LIMIT, NO_DEADLINE);
+    }
+
+    private StepQueue createStepQueue() {
+        switch (queue) {
+            case "tree":
+                return new TreeStepQueue();
+            case "bucket":
+                return new BucketStepQueue();
+            default:
+                throw new IllegalArgumentException("Unknown step queue: " + queue);
+        }
+    }
+
+    private static BenchmarkStep[] createSteps(Thought t) {
+        Random rnd = new Random(42);
+
+        BenchmarkStep[] steps = new BenchmarkStep[STEPS];
+        for(int i = 0; i < STEPS; i++) {
+            steps[i] = new BenchmarkStep(
+                    new BenchmarkElement(t, randomFired(rnd, i)),
+                    Phase.values()[rnd.nextInt(Phase.values().length)],
+                    LinkingOrder.values()[rnd.nextInt(LinkingOrder.values().length)]
+            );
+            // The timestamps are overwritten by the thought, but the bare queues rely on them for a total order.
+            steps[i].setTimestamp(i);
+        }
+        return steps;
+    }
+
+    private static long randomFired(Random rnd, int i) {
+        switch (rnd.nextInt(4)) {
+            case 0:
+                return NOT_SET;
+            case 1:
+                return MAX;
+            default:
+                return rnd.nextInt(i + 1);
+        }
+    }
+
+    private static class BenchmarkElement extends Element<BenchmarkElement> {
+
+        private final Thought thought;
+        private final long fired;
+
+        BenchmarkElement(Thought thought, long fired) {
+            this.thought = thought;
+            this.fired = fired;
+        }
+
+        @Override
+        public long getFired() {
+            return fired;
+        }
+
+        @Override
+        public Thought getThought() {
+            return thought;
+        }
+
+        @Override
+        public Config getConfig() {
+            return thought != null ? thought.getConfig() : null;
+        }
+
+        @Override
+        public int compareTo(BenchmarkElement e) {
+            return 0;
+        }
+    }
+
+    private static class BenchmarkStep extends Step<BenchmarkElement> {
+
+        private final Phase phase;
+        private final LinkingOrder linkingOrder;
+
+        BenchmarkStep(BenchmarkElement element, Phase phase, LinkingOrder linkingOrder) {
+            super(element);
+            this.phase = phase;
+            this.linkingOrder = linkingOrder;
+        }
+
+        @Override
+        public void process() {
+        }
+
+        @Override
+        public Phase getPhase() {
+            return phase;
+        }
+
+        @Override
+        public LinkingOrder getLinkingOrder() {
+            return linkingOrder;
+        }
+    }
+}
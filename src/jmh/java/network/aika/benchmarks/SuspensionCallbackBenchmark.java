@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.benchmarks;
+
+import network.aika.callbacks.FSSuspensionCallback;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores and retrieves serialized neurons with the {@link FSSuspensionCallback}. The model file is recreated for
+ * every iteration, since the store appends to it.
+ *
+ * @author Lukas Molzberger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SuspensionCallbackBenchmark {
+
+    private static final int STORED_NEURONS = 1024;
+
+    @Param({"256", "2048"})
+    public int size;
+
+    private Path path;
+    private FSSuspensionCallback callback;
+
+    private byte[] data;
+    private long nextId;
+    private Random rnd;
+
+    @Setup
+    public void setup() throws IOException {
+        path = Files.createTempDirectory("aika-benchmark");
+
+        data = new byte[size];
+        new Random(1).nextBytes(data);
+    }
+
+    @Setup(Level.Iteration)
+    public void openModel() throws IOException {
+        callback = new FSSuspensionCallback(path, "benchmark", false);
+        callback.prepareNewModel();
+        callback.open();
+
+        for(nextId = 0; nextId < STORED_NEURONS; nextId++)
+            callback.store(nextId, null, null, data);
+
+        rnd = new Random(1);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeModel() throws IOException {
+        callback.close();
+    }
+
+    @TearDown
+    public void tearDown() {
+        for(File f: path.toFile().listFiles())
+            f.delete();
+        path.toFile().delete();
+    }
+
+    @Benchmark
+    public long store() throws IOException {
+        long id = nextId++;
+        callback.store(id, null, null, data);
+        return id;
+    }
+
+    @Benchmark
+    public byte[] retrieve() throws IOException {
+        return callback.retrieve((long) rnd.nextInt(STORED_NEURONS));
+    }
+}
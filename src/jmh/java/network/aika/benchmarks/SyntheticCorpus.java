@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible token sequences over a small vocabulary.
+ *
+ * @author Lukas Molzberger
+ */
+public class SyntheticCorpus {
+
+    public static final int VOCABULARY_SIZE = 32;
+
+    public static List<String> createTokens(int length, long seed) {
+        Random rnd = new Random(seed);
+
+        List<String> tokens = new ArrayList<>(length);
+        for(int i = 0; i < length; i++)
+            tokens.add(getWord(rnd.nextInt(VOCABULARY_SIZE)));
+
+        return tokens;
+    }
+
+    public static String getWord(int i) {
+        return "w" + i;
+    }
+
+    public static String toText(List<String> tokens) {
+        return String.join(" ", tokens) + " ";
+    }
+}
@@ -16,7 +16,12 @@
  */
 package network.aika;
 
+import network.aika.neuron.activation.FieldKind;
 import network.aika.neuron.bindingsignal.BindingSignal;
+import network.aika.utils.Utils;
+
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  *
@@ -30,6 +35,16 @@ public class Config {
     private boolean trainingEnabled;
     private boolean templatesEnabled;
     private boolean countingEnabled;
+    private boolean stepCoalescingEnabled;
+    private boolean metricsEnabled;
+    private boolean batchedPropagationEnabled;
+    private boolean arenaEnabled;
+    private boolean arenaChecked;
+    private boolean lazyGradientsEnabled;
+
+    private Double tolerance = null;
+    private final Map<FieldKind, Double> tolerances = new EnumMap<>(FieldKind.class);
+    private boolean adaptiveToleranceEnabled;
 
     public double getLearnRate() {
         return learnRate;
@@ -85,6 +100,112 @@ public class Config {
         return countingEnabled;
     }
 
+    public boolean isStepCoalescingEnabled() {
+        return stepCoalescingEnabled;
+    }
+
+    public Config setStepCoalescingEnabled(boolean stepCoalescingEnabled) {
+        this.stepCoalescingEnabled = stepCoalescingEnabled;
+        return this;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public Config setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+        return this;
+    }
+
+    public boolean isBatchedPropagationEnabled() {
+        return batchedPropagationEnabled;
+    }
+
+    public Config setBatchedPropagationEnabled(boolean batchedPropagationEnabled) {
+        this.batchedPropagationEnabled = batchedPropagationEnabled;
+        return this;
+    }
+
+    public boolean isArenaEnabled() {
+        return arenaEnabled;
+    }
+
+    public Config setArenaEnabled(boolean arenaEnabled) {
+        this.arenaEnabled = arenaEnabled;
+        return this;
+    }
+
+    public boolean isArenaChecked() {
+        return arenaChecked;
+    }
+
+    public Config setArenaChecked(boolean arenaChecked) {
+        this.arenaChecked = arenaChecked;
+        return this;
+    }
+
+    public boolean isLazyGradientsEnabled() {
+        return lazyGradientsEnabled;
+    }
+
+    /**
+     * With lazy gradients, the gradient subgraph of a final activation is only built once a non-zero gradient reaches
+     * it. Activations that never receive a gradient do not allocate it at all. The results are the same as with the
+     * eager construction.
+     */
+    public Config setLazyGradientsEnabled(boolean lazyGradientsEnabled) {
+        this.lazyGradientsEnabled = lazyGradientsEnabled;
+        return this;
+    }
+
+    /**
+     * Updates of the fields of an activation that are below the tolerance are not propagated, but held back until
+     * they add up. Without a tolerance set, {@link Utils#TOLERANCE} is used.
+     */
+    public double getTolerance() {
+        return tolerance != null ? tolerance : Utils.TOLERANCE;
+    }
+
+    public Config setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    /**
+     * @return the tolerance for the given kind of activation field, which falls back to {@link #getTolerance()}.
+     */
+    public double getTolerance(FieldKind k) {
+        Double t = tolerances.get(k);
+        return t != null ? t : getTolerance();
+    }
+
+    public Config setTolerance(FieldKind k, double tolerance) {
+        tolerances.put(k, tolerance);
+        return this;
+    }
+
+    /**
+     * @return true if a tolerance differing from the default has been set.
+     */
+    public boolean hasCustomTolerance() {
+        return tolerance != null || !tolerances.isEmpty();
+    }
+
+    public boolean isAdaptiveToleranceEnabled() {
+        return adaptiveToleranceEnabled;
+    }
+
+    /**
+     * In adaptive mode, updates of the net of an activation are also held back if they provably change neither
+     * whether the activation is fired, nor its value by more than the tolerance of the value. Since the gradients
+     * depend on the net directly, the adaptive mode only applies if training is disabled.
+     */
+    public Config setAdaptiveToleranceEnabled(boolean adaptiveToleranceEnabled) {
+        this.adaptiveToleranceEnabled = adaptiveToleranceEnabled;
+        return this;
+    }
+
     public String getLabel(BindingSignal bs) {
         return "";
     }
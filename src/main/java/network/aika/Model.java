@@ -19,12 +19,16 @@ package network.aika;
 
 import network.aika.callbacks.InMemorySuspensionCallback;
 import network.aika.callbacks.SuspensionCallback;
+import network.aika.metrics.ModelMetrics;
 import network.aika.neuron.*;
 import network.aika.utils.Writable;
 
 import java.io.*;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -32,24 +36,34 @@ import java.util.stream.Stream;
 
 
 /**
+ * The model holds the neurons and synapses, which are shared by all thoughts processed against it.
+ *
+ * Several thoughts may be processed concurrently on separate threads, as long as training and counting are disabled
+ * in their configs. In this read-only inference mode the neurons and synapses are not modified; all the state of a
+ * thought, its activations, links and step queue, is confined to the thread processing it. The current thought is
+ * tracked per thread, the neuron providers are kept in concurrent maps and the fields of the model that receive
+ * connections from every activation (bias, weight) accept them concurrently. Training still requires thoughts to be
+ * processed one after another.
  *
  * @author Lukas Molzberger
  */
 public abstract class Model implements Writable {
 
-    private long N = 0;
+    private volatile long N = 0;
 
     private SuspensionCallback suspensionCallback;
     private final AtomicLong retrievalCounter = new AtomicLong(0);
     private final AtomicLong thoughtIdCounter = new AtomicLong(0);
 
-    // Important: the id field needs to be referenced by the provider!
-    private final WeakHashMap<Long, WeakReference<NeuronProvider>> providers = new WeakHashMap<>();
-    public final Map<Long, NeuronProvider> activeProviders = new TreeMap<>();
+    private final Map<Long, ProviderReference> providers = new ConcurrentHashMap<>();
+    private final ReferenceQueue<NeuronProvider> collectedProviders = new ReferenceQueue<>();
+    public final Map<Long, NeuronProvider> activeProviders = new ConcurrentSkipListMap<>();
 
     private final Templates templates = new Templates(this);
 
-    private Thought currentThought;
+    private final ModelMetrics metrics = new ModelMetrics();
+
+    private final ThreadLocal<Thought<?>> currentThought = new ThreadLocal<>();
 
     private Supplier<Writable> customDataInstanceSupplier;
 
@@ -95,12 +109,25 @@ public abstract class Model implements Writable {
         return templates;
     }
 
+    /**
+     * @return the aggregated metrics of all closed thoughts with metrics enabled.
+     */
+    public ModelMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the thought that is currently processed by the calling thread.
+     */
     public Thought<?> getCurrentThought() {
-        return currentThought;
+        return currentThought.get();
     }
 
-    public void setCurrentThought(Thought<?> currentThought) {
-        this.currentThought = currentThought;
+    public void setCurrentThought(Thought<?> t) {
+        if(t != null)
+            currentThought.set(t);
+        else
+            currentThought.remove();
     }
 
     public Collection<NeuronProvider> getActiveNeurons() {
@@ -109,16 +136,24 @@ public abstract class Model implements Writable {
 
     public NeuronProvider lookupNeuronProvider(String tokenLabel, NeuronProducer onNewCallback) {
         Long id = suspensionCallback.getIdByLabel(tokenLabel);
-        if (id == null) {
-            Neuron<?, ?> n = onNewCallback.createNeuron(tokenLabel);
-            NeuronProvider p = n.getProvider();
+        if (id == null)
+            return createNeuronProvider(tokenLabel, onNewCallback);
 
-            suspensionCallback.putLabel(tokenLabel, p.getId());
-            return p;
-        }
         return lookupNeuron(id);
     }
 
+    private synchronized NeuronProvider createNeuronProvider(String tokenLabel, NeuronProducer onNewCallback) {
+        Long id = suspensionCallback.getIdByLabel(tokenLabel);
+        if (id != null)
+            return lookupNeuron(id);
+
+        Neuron<?, ?> n = onNewCallback.createNeuron(tokenLabel);
+        NeuronProvider p = n.getProvider();
+
+        suspensionCallback.putLabel(tokenLabel, p.getId());
+        return p;
+    }
+
     public NeuronProvider getNeuronProvider(String tokenLabel) {
         Long id = suspensionCallback.getIdByLabel(tokenLabel);
         if(id == null) return null;
@@ -136,7 +171,7 @@ public abstract class Model implements Writable {
                 .map(this::lookupNeuron);
     }
 
-    public void applyMovingAverage(Config trainingConfig) {
+    public synchronized void applyMovingAverage(Config trainingConfig) {
         if(trainingConfig.getAlpha() != null) {
             N *= trainingConfig.getAlpha();
         }
@@ -150,7 +185,7 @@ public abstract class Model implements Writable {
         this.suspensionCallback = suspensionCallback;
     }
 
-    public void addToN(int l) {
+    public synchronized void addToN(int l) {
         N += l;
     }
 
@@ -158,32 +193,36 @@ public abstract class Model implements Writable {
         return N;
     }
 
-    public void setN(long n) {
+    public synchronized void setN(long n) {
         N = n;
     }
 
     public NeuronProvider lookupNeuron(Long id) {
+        NeuronProvider n = getProvider(id);
+        if (n != null)
+            return n;
+
         synchronized (providers) {
-            WeakReference<NeuronProvider> wr = providers.get(id);
-            if(wr != null) {
-                NeuronProvider n = wr.get();
-                if (n != null)
-                    return n;
-            }
+            n = getProvider(id);
+            if (n != null)
+                return n;
 
             return new NeuronProvider(this, id);
         }
     }
 
+    private NeuronProvider getProvider(Long id) {
+        ProviderReference ref = providers.get(id);
+        return ref != null ? ref.get() : null;
+    }
+
     public void suspendUnusedNeurons(long retrievalCount, SuspensionMode sm) {
-        synchronized (activeProviders) {
-            activeProviders
-                    .values()
-                    .stream()
-                    .filter(n -> !n.isSuspended())
-                    .collect(Collectors.toList())
-                    .forEach(n -> suspend(retrievalCount, n, sm));
-        }
+        activeProviders
+                .values()
+                .stream()
+                .filter(n -> !n.isSuspended())
+                .collect(Collectors.toList())
+                .forEach(n -> suspend(retrievalCount, n, sm));
     }
 
     public void suspendAll(SuspensionMode sm) {
@@ -198,21 +237,22 @@ public abstract class Model implements Writable {
     }
 
     public void registerWeakReference(NeuronProvider p) {
-        synchronized (providers) {
-            providers.put(p.getId(), new WeakReference<>(p));
-        }
+        expungeCollectedProviders();
+        providers.put(p.getId(), new ProviderReference(p, collectedProviders));
+    }
+
+    private void expungeCollectedProviders() {
+        ProviderReference ref;
+        while ((ref = (ProviderReference) collectedProviders.poll()) != null)
+            providers.remove(ref.id, ref);
     }
 
     public void register(NeuronProvider p) {
-        synchronized (activeProviders) {
-            activeProviders.put(p.getId(), p);
-        }
+        activeProviders.put(p.getId(), p);
     }
 
     public void unregister(NeuronProvider p) {
-        synchronized (activeProviders) {
-            activeProviders.remove(p.getId());
-        }
+        activeProviders.remove(p.getId());
     }
 
     public void open(boolean create) throws IOException {
@@ -251,4 +291,14 @@ public abstract class Model implements Writable {
     public interface NeuronProducer {
         Neuron createNeuron(String tokenLabel);
     }
+
+    private static class ProviderReference extends WeakReference<NeuronProvider> {
+
+        private final Long id;
+
+        ProviderReference(NeuronProvider p, ReferenceQueue<NeuronProvider> q) {
+            super(p, q);
+            this.id = p.getId();
+        }
+    }
 }
@@ -18,21 +18,33 @@ package network.aika;
 
 
 import network.aika.callbacks.EventListener;
+import network.aika.callbacks.EventType;
+import network.aika.fields.FieldArena;
+import network.aika.fields.FieldUpdateBatch;
+import network.aika.metrics.FieldUpdateCounter;
+import network.aika.metrics.MetricsSnapshot;
+import network.aika.metrics.ThoughtMetrics;
 import network.aika.neuron.Neuron;
 import network.aika.neuron.NeuronProvider;
 import network.aika.neuron.Range;
 import network.aika.neuron.Synapse;
 import network.aika.neuron.activation.*;
 import network.aika.neuron.bindingsignal.BindingSignal;
+import network.aika.steps.CoalescingKey;
 import network.aika.steps.Phase;
+import network.aika.steps.ProcessingStatus;
 import network.aika.steps.QueueKey;
 import network.aika.steps.Step;
+import network.aika.steps.StepQueue;
+import network.aika.steps.TreeStepQueue;
+
+import network.aika.utils.LongHashMap;
 
 import java.util.*;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static network.aika.callbacks.EventType.*;
 import static network.aika.steps.Phase.*;
 
 /**
@@ -41,28 +53,77 @@ import static network.aika.steps.Phase.*;
  */
 public abstract class Thought<M extends Model> {
 
+    private static final int INITIAL_ACTIVATIONS_CAPACITY = 64;
+
     protected final M model;
 
     private long id;
     private long absoluteBegin;
 
-    private Timestamp timestampOnProcess = new Timestamp(0);
+    private long timestampOnProcess = 0;
     private long timestampCounter = 0;
     private int activationIdCounter = 0;
 
-    private final NavigableMap<QueueKey, Step> queue = new TreeMap<>(QueueKey.COMPARATOR);
-
-    private final TreeMap<Integer, Activation> activationsById = new TreeMap<>();
-    private final Map<NeuronProvider, SortedSet<Activation<?>>> actsPerNeuron = new HashMap<>();
-    private final List<EventListener> eventListeners = new ArrayList<>();
+    private StepQueue queue = new TreeStepQueue();
+    private final Map<Element, List<Step>> stepsByElement = new IdentityHashMap<>();
+    private final Map<CoalescingKey, Step> pendingByKey = new HashMap<>();
+    private long mergedSteps = 0;
+
+    private Activation[] activationsById = new Activation[INITIAL_ACTIVATIONS_CAPACITY];
+    private int activationsOffset;
+    private int activationsBegin;
+    private int activationsEnd;
+    private int numberOfActivations;
+    private final Collection<Activation> activations = new ActivationsView();
+    private final LongHashMap<SortedSet<Activation<?>>> actsPerNeuron = new LongHashMap<>();
+    private final Map<EventListener, EnumSet<EventType>> subscriptions = new LinkedHashMap<>();
+    private volatile EventListener[][] eventListeners = new EventListener[EventType.values().length][0];
 
     private Config config;
 
+    private boolean finalMode;
+    private boolean abandoned;
+
+    private ThoughtMetrics metrics;
+    private FieldUpdateBatch fieldUpdateBatch;
+    private FieldArena arena;
+    private boolean closed;
+
     public Thought(M m) {
         model = m;
         id = model.createThoughtId();
         absoluteBegin = m.getN();
-        m.setCurrentThought(this);
+        model.setCurrentThought(this);
+    }
+
+    /**
+     * Makes this thought the current thought of the calling thread. The field links created from now on by this
+     * thread are allocated from the arena of this thought, if it has one. The arena stays active until the returned,
+     * previously active arena is restored with {@link FieldArena#activate(FieldArena)}.
+     */
+    protected final FieldArena makeCurrent() {
+        if(closed && arena != null && arena.isChecked())
+            throw new IllegalStateException("The thought " + id + " has already been closed.");
+
+        model.setCurrentThought(this);
+
+        FieldArena previousArena = FieldArena.getActive();
+        FieldArena.activate(arena);
+        return previousArena;
+    }
+
+    /**
+     * Runs the given task with this thought as the current thought of the calling thread, so that the field links
+     * created by the task are allocated from the arena of this thought. Links that are created outside of the
+     * processing methods, like the relations between tokens, have to be created this way.
+     */
+    public void runAsCurrent(Runnable task) {
+        FieldArena previousArena = makeCurrent();
+        try {
+            task.run();
+        } finally {
+            FieldArena.activate(previousArena);
+        }
     }
 
     public long getId() {
@@ -85,94 +146,417 @@ public abstract class Thought<M extends Model> {
 
     public void setConfig(Config config) {
         this.config = config;
+
+        if(metrics == null && config != null && config.isMetricsEnabled())
+            metrics = new ThoughtMetrics();
+
+        if(fieldUpdateBatch == null && config != null && config.isBatchedPropagationEnabled())
+            fieldUpdateBatch = new FieldUpdateBatch();
+
+        if(arena == null && config != null && config.isArenaEnabled())
+            arena = new FieldArena(config.isArenaChecked());
+    }
+
+    /**
+     * @return the arena the field links of this thought are allocated from or null, if it is not enabled in the
+     * config.
+     */
+    public FieldArena getArena() {
+        return arena;
+    }
+
+    /**
+     * @return the batch the field updates of this thought are propagated in or null, if batched propagation is not
+     * enabled in the config.
+     */
+    public FieldUpdateBatch getFieldUpdateBatch() {
+        return fieldUpdateBatch;
+    }
+
+    /**
+     * @return the batch of this thought, while it is being run, otherwise null.
+     */
+    public FieldUpdateBatch getActiveFieldUpdateBatch() {
+        return fieldUpdateBatch != null && fieldUpdateBatch.isActive() ? fieldUpdateBatch : null;
+    }
+
+    /**
+     * @return the metrics of this thought or null, if metrics are not enabled in the config.
+     */
+    public ThoughtMetrics getMetrics() {
+        return metrics;
+    }
+
+    public MetricsSnapshot getMetricsSnapshot() {
+        return metrics != null ? metrics.snapshot() : MetricsSnapshot.EMPTY;
     }
 
     public void onActivationCreationEvent(Activation act, Synapse originSynapse, Activation originAct) {
-        callEventListener(el ->
-                el.onActivationCreationEvent(act, originSynapse, originAct)
-        );
+        if(metrics != null)
+            metrics.onActivationCreated(act);
+
+        for(EventListener el: eventListeners[ACTIVATION_CREATION.ordinal()])
+            el.onActivationCreationEvent(act, originSynapse, originAct);
     }
 
     public void beforeProcessedEvent(Step s) {
-        callEventListener(el ->
-                el.beforeProcessedEvent(s)
-        );
+        for(EventListener el: eventListeners[BEFORE_PROCESSED.ordinal()])
+            el.beforeProcessedEvent(s);
     }
 
     public void afterProcessedEvent(Step s) {
-        callEventListener(el ->
-                el.afterProcessedEvent(s)
-        );
+        for(EventListener el: eventListeners[AFTER_PROCESSED.ordinal()])
+            el.afterProcessedEvent(s);
     }
 
-    private void callEventListener(Consumer<EventListener> el) {
-        getEventListeners().forEach(el);
+    public void onLinkCreationEvent(Link l) {
+        if(metrics != null)
+            metrics.onLinkCreated(l);
+
+        for(EventListener el: eventListeners[LINK_CREATION.ordinal()])
+            el.onLinkCreationEvent(l);
     }
 
-    public void onLinkCreationEvent(Link l) {
-        getEventListeners()
-                .forEach(
-                        el -> el.onLinkCreationEvent(l)
-                );
+    public void onActivationEvictionEvent(Activation act) {
+        for(EventListener el: eventListeners[ACTIVATION_EVICTION.ordinal()])
+            el.onActivationEvictionEvent(act);
     }
 
     public synchronized Collection<EventListener> getEventListeners() {
-        return new ArrayList<>(eventListeners);
+        return new ArrayList<>(subscriptions.keySet());
+    }
+
+    public void addEventListener(EventListener l) {
+        addEventListener(l, EventType.values());
     }
 
-    public synchronized void addEventListener(EventListener l) {
-        eventListeners.add(l);
+    /**
+     * Registers the listener only for the given kinds of events.
+     */
+    public synchronized void addEventListener(EventListener l, EventType... types) {
+        EnumSet<EventType> ts = subscriptions.computeIfAbsent(l, el -> EnumSet.noneOf(EventType.class));
+        ts.addAll(Arrays.asList(types));
+        updateEventListeners();
     }
 
     public synchronized void removeEventListener(EventListener l) {
-        eventListeners.remove(l);
+        subscriptions.remove(l);
+        updateEventListeners();
+    }
+
+    /**
+     * The listeners are dispatched from immutable per event type snapshots, which are only rebuilt if a listener is
+     * added or removed. Without listeners the dispatch is a loop over an empty array.
+     */
+    private void updateEventListeners() {
+        EventListener[][] els = new EventListener[EventType.values().length][];
+        for(EventType t: EventType.values()) {
+            els[t.ordinal()] = subscriptions.entrySet().stream()
+                    .filter(e -> e.getValue().contains(t))
+                    .map(Map.Entry::getKey)
+                    .toArray(EventListener[]::new);
+        }
+        eventListeners = els;
     }
 
     public void register(Activation act) {
-        activationsById.put(act.getId(), act);
+        int i = act.getId() - activationsOffset;
+        if(i >= activationsById.length)
+            activationsById = Arrays.copyOf(activationsById, Math.max(i + 1, activationsById.length * 2));
+
+        if(activationsById[i] == null)
+            numberOfActivations++;
+
+        activationsById[i] = act;
+        activationsEnd = Math.max(activationsEnd, i + 1);
+
+        actsPerNeuron
+                .computeIfAbsent(
+                        act.getNeuronProvider().getId(),
+                        n -> new TreeSet<>()
+                )
+                .add(act);
     }
 
-    public void register(NeuronProvider np, SortedSet<Activation<?>> acts) {
-        actsPerNeuron.put(np, acts);
+    /**
+     * Removes a detached activation from the registry of this thought. Once the leading part of the activation array
+     * has been emptied this way, the array is compacted, so that a thought whose activations are released
+     * continuously, like a streaming document, only holds an array covering the remaining activations.
+     */
+    public void unregister(Activation act) {
+        int i = act.getId() - activationsOffset;
+        if(i < 0 || i >= activationsEnd || activationsById[i] != act)
+            return;
+
+        activationsById[i] = null;
+        numberOfActivations--;
+
+        SortedSet<Activation<?>> acts = actsPerNeuron.get(act.getNeuronProvider().getId());
+        if(acts != null)
+            acts.remove(act);
+
+        while(activationsBegin < activationsEnd && activationsById[activationsBegin] == null)
+            activationsBegin++;
+
+        if(activationsBegin >= INITIAL_ACTIVATIONS_CAPACITY && activationsBegin * 2 >= activationsById.length) {
+            activationsById = Arrays.copyOfRange(
+                    activationsById,
+                    activationsBegin,
+                    activationsBegin + Math.max(INITIAL_ACTIVATIONS_CAPACITY, activationsById.length / 2)
+            );
+            activationsOffset += activationsBegin;
+            activationsEnd -= activationsBegin;
+            activationsBegin = 0;
+        }
     }
 
     public void registerBindingSignalSource(Activation act, BindingSignal pbs) {
     }
 
     public void addStep(Step s) {
+        if(isStepCoalescingEnabled()) {
+            CoalescingKey key = s.getCoalescingKey();
+            if(key != null && pendingByKey.putIfAbsent(key, s) != null) {
+                mergedSteps++;
+                return;
+            }
+        }
+
         s.setTimestamp(getNextTimestamp());
-        queue.put(s, s);
+        queue.add(s);
+
+        if(metrics != null)
+            metrics.onStepQueued(s.getPhase());
+
+        stepsByElement
+                .computeIfAbsent(s.getElement(), e -> new ArrayList<>(2))
+                .add(s);
     }
 
     public void removeStep(Step s) {
-        Step removedStep = queue.remove(s);
-        assert removedStep != null;
+        boolean removed = queue.remove(s);
+        assert removed;
+
+        removeFromIndexes(s);
+    }
+
+    /**
+     * Allows callers to skip the creation of a step, if an equivalent step is already pending.
+     *
+     * @return true if a step with the given key is pending and the new step has been merged into it.
+     */
+    public boolean coalesce(CoalescingKey key) {
+        if(!isStepCoalescingEnabled() || !pendingByKey.containsKey(key))
+            return false;
+
+        mergedSteps++;
+        return true;
+    }
+
+    /**
+     * @return the number of steps that have been merged into equivalent pending steps.
+     */
+    public long getNumberOfMergedSteps() {
+        return mergedSteps;
+    }
+
+    private boolean isStepCoalescingEnabled() {
+        return config != null && config.isStepCoalescingEnabled();
+    }
+
+    private void removeFromIndexes(Step s) {
+        if(metrics != null)
+            metrics.onStepDequeued(s.getPhase());
+
+        if(isStepCoalescingEnabled()) {
+            CoalescingKey key = s.getCoalescingKey();
+            if(key != null)
+                pendingByKey.remove(key, s);
+        }
+
+        removeFromElementIndex(s);
+    }
+
+    private void removeFromElementIndex(Step s) {
+        List<Step> steps = stepsByElement.get(s.getElement());
+        if(steps == null)
+            return;
+
+        steps.remove(s);
+        if(steps.isEmpty())
+            stepsByElement.remove(s.getElement());
+    }
+
+    /**
+     * Removes all pending steps of the given element from the queue, e.g. if a branch is discarded.
+     *
+     * @return the cancelled steps
+     */
+    public <E extends Element> List<Step> cancelSteps(E element) {
+        List<Step> steps = stepsByElement.remove(element);
+        if(steps == null)
+            return Collections.emptyList();
+
+        for(Step s: steps) {
+            queue.remove(s);
+
+            if(isStepCoalescingEnabled()) {
+                CoalescingKey key = s.getCoalescingKey();
+                if(key != null)
+                    pendingByKey.remove(key, s);
+            }
+
+            if(metrics != null)
+                metrics.onStepDequeued(s.getPhase());
+
+            s.cancel();
+        }
+        return steps;
     }
 
     public Collection<Step> getQueue() {
-        return queue.values();
+        return queue.getSteps();
+    }
+
+    public StepQueue getStepQueue() {
+        return queue;
+    }
+
+    /**
+     * Replaces the step queue implementation, e.g. by a {@link network.aika.steps.BucketStepQueue} for large
+     * documents. Steps that are still pending are transferred to the new queue.
+     */
+    public void setStepQueue(StepQueue newQueue) {
+        while(!queue.isEmpty())
+            newQueue.add(queue.poll());
+
+        queue = newQueue;
     }
 
     public Range getRange() {
         return new Range(absoluteBegin, absoluteBegin + length());
     }
 
+    public static final long NO_STEP_LIMIT = Long.MAX_VALUE;
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
     protected void process(Phase maxPhase) {
+        process(maxPhase, NO_STEP_LIMIT, NO_DEADLINE);
+    }
+
+    /**
+     * Processes the queued steps up to the given phase, but at most maxSteps steps and only until the deadline is
+     * reached. Steps are never interrupted, so the activations are in a consistent state whenever this method returns
+     * and can be queried. If the status returned is resumable, processing continues where it stopped with the next
+     * call.
+     *
+     * @param deadlineNanos a point in time as returned by {@link System#nanoTime()} or {@link #NO_DEADLINE}
+     */
+    public ProcessingStatus process(Phase maxPhase, long maxSteps, long deadlineNanos) {
+        if(abandoned)
+            return ProcessingStatus.ABANDONED;
+
+        FieldArena previousArena = makeCurrent();
+        try {
+            return processSteps(maxPhase, maxSteps, deadlineNanos);
+        } finally {
+            FieldArena.activate(previousArena);
+        }
+    }
+
+    private ProcessingStatus processSteps(Phase maxPhase, long maxSteps, long deadlineNanos) {
+        long stepCount = 0;
         while (!queue.isEmpty()) {
             if(checkMaxPhaseReached(maxPhase))
                 break;
 
-            Step s = queue.pollFirstEntry().getValue();
+            if(stepCount >= maxSteps)
+                return ProcessingStatus.STEP_LIMIT_REACHED;
+
+            if(deadlineNanos != NO_DEADLINE && System.nanoTime() - deadlineNanos >= 0)
+                return ProcessingStatus.DEADLINE_REACHED;
+
+            Step s = queue.poll();
+            removeFromIndexes(s);
             timestampOnProcess = getCurrentTimestamp();
 
-            beforeProcessedEvent(s);
-            s.process();
-            afterProcessedEvent(s);
+            if(metrics != null)
+                processWithMetrics(s);
+            else
+                processStep(s);
+
+            stepCount++;
+        }
+        return ProcessingStatus.COMPLETED;
+    }
+
+    private void processStep(Step s) {
+        beforeProcessedEvent(s);
+        runBatched(s::process);
+        afterProcessedEvent(s);
+    }
+
+    /**
+     * Runs the given task within the field update batch of this thought, if batched propagation is enabled.
+     */
+    protected void runBatched(Runnable task) {
+        if(fieldUpdateBatch != null)
+            fieldUpdateBatch.run(task);
+        else
+            task.run();
+    }
+
+    private void processWithMetrics(Step s) {
+        FieldUpdateCounter.start();
+        long updates = FieldUpdateCounter.get();
+        long suppressed = FieldUpdateCounter.getSuppressed();
+        long begin = System.nanoTime();
+
+        try {
+            processStep(s);
+        } finally {
+            FieldUpdateCounter.stop();
         }
+
+        metrics.onStepProcessed(
+                s,
+                System.nanoTime() - begin,
+                FieldUpdateCounter.get() - updates,
+                FieldUpdateCounter.getSuppressed() - suppressed
+        );
+    }
+
+    /**
+     * @return true if steps of the given phase or of an earlier one are pending.
+     */
+    public boolean hasPendingSteps(Phase maxPhase) {
+        return !queue.isEmpty() && !checkMaxPhaseReached(maxPhase);
+    }
+
+    /**
+     * Processes the steps that are currently pending for the given element right away, regardless of their phase,
+     * e.g. the post processing steps of an activation that is about to be detached.
+     */
+    public <E extends Element> void processPendingSteps(E element) {
+        runAsCurrent(() -> {
+            // The steps are taken from a copy of the index, since processing a step may remove or cancel the others.
+            for(Step s: getStepsByElement(element)) {
+                if(!queue.remove(s))
+                    continue;
+
+                removeFromIndexes(s);
+                timestampOnProcess = getCurrentTimestamp();
+
+                if(metrics != null)
+                    processWithMetrics(s);
+                else
+                    processStep(s);
+            }
+        });
     }
 
     private boolean checkMaxPhaseReached(Phase maxPhase) {
-        return maxPhase.compareTo(queue.firstEntry().getValue().getPhase()) < 0;
+        return maxPhase.compareTo(queue.peek().getPhase()) < 0;
     }
 
     /**
@@ -180,12 +564,55 @@ public abstract class Thought<M extends Model> {
      * active is reverted and the actual evaluation of the feedback synapses takes place.
      */
     public void processFinalMode() {
-        activationsById.values()
-                .forEach(act ->
-                        act.getIsFinal().set(1.0)
-                );
+        processFinalMode(NO_STEP_LIMIT, NO_DEADLINE);
+    }
+
+    /**
+     * Bounded variant of {@link #processFinalMode()}. The switch into final mode only happens on the first call, the
+     * following calls resume the processing.
+     */
+    public ProcessingStatus processFinalMode(long maxSteps, long deadlineNanos) {
+        if(!finalMode && !abandoned) {
+            finalMode = true;
+            runAsCurrent(() -> {
+                if(metrics != null)
+                    setFinalWithMetrics();
+                else
+                    setFinalBatched();
+            });
+        }
+
+        return process(PROCESSING, maxSteps, deadlineNanos);
+    }
+
+    private void setFinalBatched() {
+        runBatched(this::setFinal);
+    }
+
+    private void setFinalWithMetrics() {
+        FieldUpdateCounter.start();
+        long updates = FieldUpdateCounter.get();
+        long suppressed = FieldUpdateCounter.getSuppressed();
+        try {
+            setFinalBatched();
+        } finally {
+            FieldUpdateCounter.stop();
+        }
+
+        metrics.addFieldUpdates(
+                FieldUpdateCounter.get() - updates,
+                FieldUpdateCounter.getSuppressed() - suppressed
+        );
+    }
+
+    private void setFinal() {
+        activations.forEach(act ->
+                act.getIsFinal().set(1.0)
+        );
+    }
 
-        process(PROCESSING);
+    public boolean isFinalMode() {
+        return finalMode;
     }
 
     /**
@@ -195,51 +622,122 @@ public abstract class Thought<M extends Model> {
         process(POST_PROCESSING);
     }
 
-    public Timestamp getTimestampOnProcess() {
+    public ProcessingStatus postProcessing(long maxSteps, long deadlineNanos) {
+        return process(POST_PROCESSING, maxSteps, deadlineNanos);
+    }
+
+    /**
+     * Stops the processing of this thought, e.g. if its time budget has expired. The pending steps are cancelled,
+     * while the activations computed so far remain queryable.
+     */
+    public void abandon() {
+        while (!queue.isEmpty()) {
+            Step s = queue.poll();
+            removeFromIndexes(s);
+            s.cancel();
+        }
+        abandoned = true;
+    }
+
+    public boolean isAbandoned() {
+        return abandoned;
+    }
+
+    public long getTimestampOnProcess() {
         return timestampOnProcess;
     }
 
-    public Timestamp getCurrentTimestamp() {
-        return new Timestamp(timestampCounter);
+    public long getCurrentTimestamp() {
+        return timestampCounter;
     }
 
-    public Timestamp getNextTimestamp() {
-        return new Timestamp(timestampCounter++);
+    public long getNextTimestamp() {
+        return timestampCounter++;
     }
 
     public <E extends Element> List<Step> getStepsByElement(E element) {
-        return queue
-                .values()
-                .stream()
-                .filter(s -> s.getElement() == element)
-                .collect(Collectors.toList());
+        List<Step> steps = stepsByElement.get(element);
+        if(steps == null)
+            return Collections.emptyList();
+
+        List<Step> result = new ArrayList<>(steps);
+        result.sort(QueueKey.COMPARATOR);
+        return result;
     }
 
     public int createActivationId() {
         return activationIdCounter++;
     }
 
-    public Activation getActivation(Integer id) {
-        return activationsById.get(id);
+    public Activation getActivation(int id) {
+        int i = id - activationsOffset;
+        return i >= 0 && i < activationsEnd ? activationsById[i] : null;
     }
 
+    /**
+     * @return a view of the activations of this thought in the order of their ids.
+     */
     public Collection<Activation> getActivations() {
-        return activationsById.values();
+        return activations;
+    }
+
+    /**
+     * Returns the activations of the given neuron in the order of their ids. The lookup itself takes no lock; like
+     * all other state of a thought, the returned set must only be modified by the thread processing this thought.
+     */
+    public <A extends Activation<?>> SortedSet<A> getActivations(NeuronProvider np) {
+        SortedSet<A> acts = (SortedSet<A>) actsPerNeuron.get(np.getId());
+        return acts != null ? acts : Collections.emptySortedSet();
     }
 
     public int getNumberOfActivations() {
-        return activationsById.size();
+        return numberOfActivations;
     }
 
+    /**
+     * Disconnects the activations and their links from the field graph. Afterwards, the shared fields of the model,
+     * such as the neuron biases and the synapse weights, no longer refer to this thought. The output links are
+     * visited as well, since an input link may have been replaced by another link from the same input neuron.
+     */
     public void disconnect() {
-        getActivations().forEach(act ->
-                act.disconnect()
-        );
+        for(Activation<?> act: getActivations()) {
+            act.getInputLinks().forEach(Link::disconnect);
+            act.getOutputLinks().forEach(Link::disconnect);
+            act.disconnect();
+        }
+    }
+
+    /**
+     * Disconnects the activations of this thought from the model and releases its per-neuron activation sets.
+     * Thoughts that are processed against a shared model should be closed once their results have been read.
+     *
+     * If the thought has an arena, its field links are released in bulk instead of disconnecting every activation.
+     * Afterwards, the values of the fields and of the outputs of their kernels, such as isFired, remain readable. Other
+     * functions lose their inputs, report that they are not initialized and read their inputs as 0.0, or throw an
+     * IllegalStateException if the arena is checked. The fields must not be updated anymore.
+     */
+    public void close() {
+        if(closed)
+            return;
+        closed = true;
+
+        if(arena != null)
+            arena.release();
+        else
+            disconnect();
+
+        actsPerNeuron.clear();
+
+        if(model.getCurrentThought() == this)
+            model.setCurrentThought(null);
+
+        if(metrics != null)
+            model.getMetrics().add(metrics.snapshot());
     }
 
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for(Activation act: activationsById.values()) {
+        for(Activation act: activations) {
             sb.append(act.toString());
             sb.append("\n");
         }
@@ -250,4 +748,64 @@ public abstract class Thought<M extends Model> {
     public Stream<BindingSignal<?>> getLooselyRelatedBindingSignals(BindingSignal<?> fromBindingSignal, Integer looseLinkingRange, Neuron toNeuron) {
         return Stream.empty();
     }
+
+    /**
+     * Visits the binding signals returned by {@link #getLooselyRelatedBindingSignals}, without creating a stream.
+     */
+    public void forEachLooselyRelatedBindingSignal(BindingSignal<?> fromBindingSignal, Integer looseLinkingRange, Neuron toNeuron, Consumer<? super BindingSignal> visitor) {
+    }
+
+    /**
+     * A read only view of the dense activation array. Ids that have been handed out but were never registered, or
+     * whose activations have been unregistered again, are skipped. The iteration covers the activations registered at the time the iteration starts.
+     */
+    private class ActivationsView extends AbstractCollection<Activation> {
+
+        @Override
+        public int size() {
+            return numberOfActivations;
+        }
+
+        @Override
+        public Iterator<Activation> iterator() {
+            Activation[] acts = activationsById;
+            int end = activationsEnd;
+
+            return new Iterator<>() {
+                int next = advance(activationsBegin);
+
+                private int advance(int i) {
+                    while(i < end && acts[i] == null)
+                        i++;
+                    return i;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next < end;
+                }
+
+                @Override
+                public Activation next() {
+                    if(next >= end)
+                        throw new NoSuchElementException();
+
+                    Activation act = acts[next];
+                    next = advance(next + 1);
+                    return act;
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super Activation> action) {
+            Activation[] acts = activationsById;
+            int end = activationsEnd;
+            for(int i = activationsBegin; i < end; i++) {
+                Activation act = acts[i];
+                if(act != null)
+                    action.accept(act);
+            }
+        }
+    }
 }
@@ -22,16 +22,29 @@ import network.aika.neuron.activation.Link;
 import network.aika.steps.Step;
 
 /**
+ * Receives the events of a thought. Listeners only need to implement the events they have subscribed to, see
+ * {@link network.aika.Thought#addEventListener(EventListener, EventType...)}.
  *
  * @author Lukas Molzberger
  */
 public interface EventListener {
 
-    void beforeProcessedEvent(Step s);
+    default void beforeProcessedEvent(Step s) {
+    }
 
-    void afterProcessedEvent(Step s);
+    default void afterProcessedEvent(Step s) {
+    }
 
-    void onActivationCreationEvent(Activation act, Synapse originSynapse, Activation originAct);
+    default void onActivationCreationEvent(Activation act, Synapse originSynapse, Activation originAct) {
+    }
 
-    void onLinkCreationEvent(Link l);
+    default void onLinkCreationEvent(Link l) {
+    }
+
+    /**
+     * Called for every finalized activation that is about to be detached by a streaming
+     * {@link network.aika.text.Document}. The activation is still fully readable at this point.
+     */
+    default void onActivationEvictionEvent(Activation act) {
+    }
 }
@@ -27,8 +27,19 @@ public abstract class AbstractBiFunction extends FieldNode implements FieldInput
 
     private String label;
 
+    private final FunctionCache cache;
+
     public AbstractBiFunction(String label) {
+        this(label, false);
+    }
+
+    /**
+     * @param cached whether the output of this function should be memoized. This pays off for functions that are
+     *               expensive to evaluate, but costs memory and a version check for cheap arithmetic.
+     */
+    public AbstractBiFunction(String label, boolean cached) {
         this.label = label;
+        this.cache = cached ? new FunctionCache() : null;
     }
 
     public void addInput(FieldLink l) {
@@ -37,15 +48,21 @@ public abstract class AbstractBiFunction extends FieldNode implements FieldInput
         } else {
             in2 = l;
         }
+        if(cache != null)
+            cache.invalidate();
     }
 
     @Override
     public void removeInput(FieldLink l) {
-        if(l.getArgument() == 1) {
+        if(in1 == l) {
             in1 = null;
-        } else {
+        } else if(in2 == l) {
             in2 = null;
-        }
+        } else
+            return;
+
+        if(cache != null)
+            cache.invalidate();
     }
 
     @Override
@@ -78,6 +95,57 @@ public abstract class AbstractBiFunction extends FieldNode implements FieldInput
         return label;
     }
 
+    /**
+     * The sum of the versions of both inputs. Since the versions only increase, the sum changes with every change
+     * of either input.
+     */
+    @Override
+    public long getVersion() {
+        return getVersion(in1) + getVersion(in2);
+    }
+
+    private static long getVersion(FieldLink in) {
+        return in != null ? in.getInput().getVersion() : 0;
+    }
+
+    /**
+     * Forces the function to be reevaluated on the next read, e.g. if it depends on state other than its inputs.
+     */
+    public void invalidate() {
+        if(cache != null)
+            cache.invalidate();
+    }
+
+    @Override
+    public double getCurrentValue() {
+        if(cache == null)
+            return applyFunction(FieldOutput.getCurrentValue(in1), FieldOutput.getCurrentValue(in2));
+
+        long v = getVersion();
+        if(cache.isValid(v))
+            return cache.getValue();
+
+        double x1 = FieldOutput.getCurrentValue(in1);
+        double x2 = FieldOutput.getCurrentValue(in2);
+        double y = cache.hasNext(x1, x2) ?
+                cache.getNext() :
+                applyFunction(x1, x2);
+
+        cache.setValue(v, y);
+        return y;
+    }
+
+    protected abstract double applyFunction(double x1, double x2);
+
+    /**
+     * Remembers the value computed for an update, so that it does not need to be recomputed once the inputs have
+     * acknowledged the update.
+     */
+    protected void setNextValue(double x1, double x2, double value) {
+        if(cache != null)
+            cache.setNext(x1, x2, value);
+    }
+
     public void receiveUpdate(int arg, double u) {
         if(isInitialized(arg))
             propagateUpdate(computeUpdate(arg, u));
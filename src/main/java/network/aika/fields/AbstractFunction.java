@@ -26,16 +26,34 @@ public abstract class AbstractFunction extends FieldNode implements FieldInput,
     protected FieldLink input;
     private String label;
 
+    private final FunctionCache cache;
+
     public AbstractFunction(String label) {
+        this(label, false);
+    }
+
+    /**
+     * @param cached whether the output of this function should be memoized. This pays off for functions that are
+     *               expensive to evaluate, but costs memory and a version check for cheap arithmetic.
+     */
+    public AbstractFunction(String label, boolean cached) {
         this.label = label;
+        this.cache = cached ? new FunctionCache() : null;
     }
 
     public void addInput(FieldLink in) {
         this.input = in;
+        if(cache != null)
+            cache.invalidate();
     }
 
     public void removeInput(FieldLink l) {
+        if(input != l)
+            return;
+
         this.input = null;
+        if(cache != null)
+            cache.invalidate();
     }
 
     @Override
@@ -54,12 +72,38 @@ public abstract class AbstractFunction extends FieldNode implements FieldInput,
 
     @Override
     public boolean isInitialized() {
-        return input.getInput().isInitialized();
+        return input != null && input.getInput().isInitialized();
+    }
+
+    @Override
+    public long getVersion() {
+        return input != null ? input.getInput().getVersion() : 0;
+    }
+
+    /**
+     * Forces the function to be reevaluated on the next read, e.g. if it depends on state other than its input.
+     */
+    public void invalidate() {
+        if(cache != null)
+            cache.invalidate();
     }
 
     @Override
     public double getCurrentValue() {
-        return applyFunction(input.getInput().getCurrentValue());
+        if(cache == null)
+            return applyFunction(FieldOutput.getCurrentValue(input));
+
+        long v = getVersion();
+        if(cache.isValid(v))
+            return cache.getValue();
+
+        double x = FieldOutput.getCurrentValue(input);
+        double y = cache.hasNext(x, 0.0) ?
+                cache.getNext() :
+                applyFunction(x);
+
+        cache.setValue(v, y);
+        return y;
     }
 
     protected abstract double applyFunction(double x);
@@ -70,13 +114,20 @@ public abstract class AbstractFunction extends FieldNode implements FieldInput,
     }
 
     protected double computeUpdate(double u) {
-        return input.getInput().isInitialized() ?
-                computeNewValue(u) - getCurrentValue() :
-                computeNewValue(u);
+        if(!input.getInput().isInitialized())
+            return computeNewValue(u);
+
+        // The current value is read first, since it may be taken from the value computed for the previous update.
+        double cv = getCurrentValue();
+        return computeNewValue(u) - cv;
     }
 
     private double computeNewValue(double u) {
-        return applyFunction(input.getInput().getCurrentValue() + u);
+        double nx = input.getInput().getCurrentValue() + u;
+        double nv = applyFunction(nx);
+        if(cache != null)
+            cache.setNext(nx, 0.0, nv);
+        return nv;
     }
 
     @Override
@@ -26,8 +26,8 @@ public class Addition extends AbstractBiFunction {
     }
 
     @Override
-    public double getCurrentValue() {
-        return FieldOutput.getCurrentValue(in1) + FieldOutput.getCurrentValue(in2);
+    protected double applyFunction(double x1, double x2) {
+        return x1 + x2;
     }
 
     @Override
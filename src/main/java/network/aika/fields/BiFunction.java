@@ -26,31 +26,48 @@ public class BiFunction extends AbstractBiFunction {
     private DoubleBinaryOperator function;
 
     public BiFunction(String label, DoubleBinaryOperator f) {
-        super(label);
+        this(label, f, false);
+    }
+
+    /**
+     * @param cached whether the output should be memoized. Only pure functions of the inputs may be cached, since
+     *               the cache is only invalidated when an input changes.
+     */
+    public BiFunction(String label, DoubleBinaryOperator f, boolean cached) {
+        super(label, cached);
         this.function = f;
     }
 
     @Override
-    public double getCurrentValue() {
-        return function.applyAsDouble(in1.getInput().getCurrentValue(), in2.getInput().getCurrentValue());
+    protected double applyFunction(double x1, double x2) {
+        return function.applyAsDouble(x1, x2);
     }
 
     @Override
     protected double computeUpdate(int arg, double u) {
-        if(isInitialized())
-            return computeNewValue(arg, u) - getCurrentValue();
-        else
+        if(!isInitialized())
             return computeNewValue(arg, u);
+
+        // The current value is read first, since it may be taken from the value computed for the previous update.
+        double cv = getCurrentValue();
+        return computeNewValue(arg, u) - cv;
     }
 
     private double computeNewValue(int arg, double u) {
+        double x1 = FieldOutput.getCurrentValue(in1);
+        double x2 = FieldOutput.getCurrentValue(in2);
         switch (arg) {
             case 1:
-                return function.applyAsDouble(u + FieldOutput.getCurrentValue(in1), FieldOutput.getCurrentValue(in2));
+                x1 += u;
+                break;
             case 2:
-                return function.applyAsDouble(FieldOutput.getCurrentValue(in1), u + FieldOutput.getCurrentValue(in2));
+                x2 += u;
+                break;
             default:
                 throw new IllegalArgumentException();
         }
+        double nv = function.applyAsDouble(x1, x2);
+        setNextValue(x1, x2, nv);
+        return nv;
     }
 }
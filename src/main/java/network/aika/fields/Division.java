@@ -26,8 +26,8 @@ public class Division extends AbstractBiFunction {
     }
 
     @Override
-    public double getCurrentValue() {
-        return FieldOutput.getCurrentValue(in1) / FieldOutput.getCurrentValue(in2);
+    protected double applyFunction(double x1, double x2) {
+        return x1 / x2;
     }
 
     @Override
@@ -37,9 +37,20 @@ public class Division extends AbstractBiFunction {
                 double v2 = FieldOutput.getCurrentValue(in2);
                 return (u * v2) / Math.pow(v2, 2.0);
             case 2:
-                return -(u * FieldOutput.getCurrentValue(in1)) / Math.pow(FieldOutput.getCurrentValue(in2), 2.0);
+                double v1 = FieldOutput.getCurrentValue(in1);
+                double cv2 = FieldOutput.getCurrentValue(in2);
+                // Within a batch, u may consist of several merged updates, for which the linearization is too coarse.
+                if(isBatched(in2))
+                    return (v1 / (cv2 + u)) - (v1 / cv2);
+
+                return -(u * v1) / Math.pow(cv2, 2.0);
             default:
                 throw new IllegalArgumentException();
         }
     }
+
+    private static boolean isBatched(FieldLink in) {
+        return in.getInput() instanceof Field &&
+                ((Field) in.getInput()).getActiveBatch() != null;
+    }
 }
@@ -17,6 +17,9 @@
 package network.aika.fields;
 
 import network.aika.Model;
+import network.aika.Thought;
+import network.aika.metrics.FieldUpdateCounter;
+import network.aika.neuron.activation.Element;
 import network.aika.utils.Utils;
 import network.aika.utils.Writable;
 import org.slf4j.Logger;
@@ -25,9 +28,7 @@ import org.slf4j.LoggerFactory;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.WeakHashMap;
+import java.util.Arrays;
 
 /**
  * @author Lukas Molzberger
@@ -36,15 +37,26 @@ public class Field extends FieldNode implements IField, Writable {
 
     private static final Logger log = LoggerFactory.getLogger(Field.class);
 
-    private Double currentValue;
-    private Double update;
+    private double currentValue;
+    private boolean initialized;
+
+    private double update;
+    private boolean updatePending;
+
+    private long version;
+
     private boolean allowUpdate;
     private Object refObj;
     private String label;
 
     private PropagatePreCondition propagatePreCondition;
 
-    private List<FieldLink> inputs = new ArrayList<>();
+    private Runnable onFirstNonZeroUpdate;
+
+    // Inputs are stored like the receivers of a node: compact, with removed links leaving an empty slot behind.
+    private FieldLink[] inputs;
+    private int inputSlots;
+    private int removedInputs;
 
     public Field(Object refObj, String label) {
         this.refObj = refObj;
@@ -56,6 +68,7 @@ public class Field extends FieldNode implements IField, Writable {
         this(refObj, label);
 
         currentValue = initialValue;
+        initialized = true;
     }
 
     public Field(Object refObj, String label, FieldOnTrueEvent fieldListener) {
@@ -80,6 +93,14 @@ public class Field extends FieldNode implements IField, Writable {
         this.propagatePreCondition = propagatePreCondition;
     }
 
+    /**
+     * Registers a callback that is invoked once, right before the first non-zero update of this field is propagated.
+     * Receivers that are connected by the callback already receive this update.
+     */
+    public void setOnFirstNonZeroUpdate(Runnable callback) {
+        this.onFirstNonZeroUpdate = callback;
+    }
+
     @Override
     public double getCurrentValue() {
         if(!isInitialized())
@@ -88,11 +109,34 @@ public class Field extends FieldNode implements IField, Writable {
         return currentValue;
     }
 
+    /**
+     * @return the update that has been received but not yet propagated, e.g. while the field waits on the work list of
+     * a {@link FieldUpdateBatch}.
+     */
+    public double getPendingUpdate() {
+        return updatePending ? update : 0.0;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    private void storeValue(double v) {
+        version++;
+        currentValue = v;
+        initialized = true;
+    }
+
     public void set(double v) {
+        updatePending = true;
         if(isInitialized()) {
             update = v - currentValue;
-            if(!propagatePreCondition.check(currentValue, v, v - currentValue))
+            if(!propagatePreCondition.check(currentValue, v, v - currentValue)) {
+                if(FieldUpdateCounter.isEnabled())
+                    FieldUpdateCounter.incrementSuppressed();
                 return;
+            }
         } else {
             update = v;
         }
@@ -102,69 +146,130 @@ public class Field extends FieldNode implements IField, Writable {
 
     @Override
     public void receiveUpdate(int arg, double u) {
-        if(update == null)
-            update = u;
-        else
+        if(updatePending) {
             update += u;
+        } else {
+            update = u;
+            updatePending = true;
+        }
 
         if(!isInitialized() || propagatePreCondition.check(
                 currentValue,
                 currentValue + update,
                 update)) {
             triggerUpdate();
-        }
+        } else if(FieldUpdateCounter.isEnabled())
+            FieldUpdateCounter.incrementSuppressed();
     }
 
     @Override
     public void addInput(FieldLink l) {
-        inputs.add(l);
+        if(inputs == null)
+            inputs = new FieldLink[1];
+        else if(inputSlots == inputs.length)
+            inputs = Arrays.copyOf(inputs, inputs.length * 2);
+
+        l.inputIndex = inputSlots;
+        inputs[inputSlots++] = l;
     }
 
     @Override
     public void removeInput(FieldLink l) {
-        inputs.remove(l);
+        int i = l.inputIndex;
+        if(i < 0 || i >= inputSlots || inputs[i] != l)
+            return;
+
+        inputs[i] = null;
+        l.inputIndex = -1;
+        if(2 * ++removedInputs >= inputSlots)
+            compactInputs();
+    }
+
+    private void compactInputs() {
+        int n = 0;
+        for(int i = 0; i < inputSlots; i++) {
+            FieldLink l = inputs[i];
+            if(l == null)
+                continue;
+
+            l.inputIndex = n;
+            inputs[n++] = l;
+        }
+        Arrays.fill(inputs, n, inputSlots, null);
+        inputSlots = n;
+        removedInputs = 0;
     }
 
     @Override
     public void disconnect() {
         super.disconnect();
-        inputs.stream()
-                .forEach(l -> l.getInput().removeOutput(l, false));
-        inputs.clear();
+        for(int i = 0; i < inputSlots; i++) {
+            FieldLink l = inputs[i];
+            if(l == null)
+                continue;
+
+            l.inputIndex = -1;
+            l.getInput().removeOutput(l, false);
+        }
+        inputs = null;
+        inputSlots = 0;
+        removedInputs = 0;
     }
 
     public void triggerUpdate() {
-        triggerInternal();
+        FieldUpdateBatch b = getActiveBatch();
+        if(b != null)
+            b.add(this);
+        else
+            triggerInternal();
+    }
+
+    /**
+     * @return the field update batch that is currently active for the thought of this field or null, if there is none.
+     */
+    FieldUpdateBatch getActiveBatch() {
+        if(!(refObj instanceof Element))
+            return null;
+
+        Thought t = ((Element<?>) refObj).getThought();
+        return t != null ? t.getActiveFieldUpdateBatch() : null;
     }
 
     protected void triggerInternal() {
         allowUpdate = true;
-        if(updateAvailable())
+        if(updateAvailable()) {
+            if(onFirstNonZeroUpdate != null && update != 0.0) {
+                Runnable callback = onFirstNonZeroUpdate;
+                onFirstNonZeroUpdate = null;
+                callback.run();
+            }
             propagateUpdate(update);
+        }
         acknowledgePropagated();
         allowUpdate = false;
     }
 
     private boolean updateAvailable() {
-        return update != null;
+        return updatePending;
     }
 
     @Override
     public boolean isInitialized() {
-        return currentValue != null;
+        return initialized;
     }
 
     private void acknowledgePropagated() {
-        if (update == null)
+        if (!updatePending)
             return;
 
         assert allowUpdate;
         if (isInitialized())
-            currentValue += update;
+            storeValue(currentValue + update);
         else
-            currentValue = update;
+            storeValue(update);
 
-        update = null;
+        update = 0.0;
+        updatePending = false;
     }
 
     @Override
@@ -174,8 +279,9 @@ public class Field extends FieldNode implements IField, Writable {
 
     @Override
     public void readFields(DataInput in, Model m) throws IOException {
-        currentValue = in.readDouble();
-        update = null;
+        storeValue(in.readDouble());
+        update = 0.0;
+        updatePending = false;
     }
 
     @Override
@@ -183,7 +289,7 @@ public class Field extends FieldNode implements IField, Writable {
         if(!isInitialized())
             return "--";
 
-        return "[u:" + (update != null ? Utils.round(update) : "--") + ", " +
-                "v:" + (currentValue != null ? Utils.round(currentValue) : "--") + "]";
+        return "[u:" + (updatePending ? Utils.round(update) : "--") + ", " +
+                "v:" + Utils.round(currentValue) + "]";
     }
 }
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.fields;
+
+import java.util.Arrays;
+
+/**
+ * Collects the field links that are created while a thought is processed, so that they can all be released at once
+ * when the thought is closed, instead of disconnecting the fields of every activation and link one by one. Since every
+ * edge of the field graph is a {@link FieldLink}, removing these links from their inputs and outputs also detaches the
+ * fields of the thought from the shared fields of the model, such as the biases and weights. The remaining field
+ * graph of the thought is then left to the garbage collector as a whole.
+ *
+ * Released links are returned to a pool of the releasing thread and reused for the next thought processed by this
+ * thread. In checked mode the links are never reused. Instead, any later access to a released link throws an
+ * {@link IllegalStateException}, which allows tests to detect references that outlive the thought. The released links
+ * also stay registered at their outputs, so that reading a function whose input has been released fails as well,
+ * instead of silently returning 0.0.
+ *
+ * Only the field links are pooled. The activations, links, binding signals and field nodes are still allocated for
+ * every thought and left to the garbage collector.
+ *
+ * @author Lukas Molzberger
+ */
+public class FieldArena {
+
+    public static final int MAX_POOL_SIZE = 1 << 16;
+
+    private static final ThreadLocal<FieldArena> active = new ThreadLocal<>();
+    private static final ThreadLocal<Pool> pools = ThreadLocal.withInitial(Pool::new);
+
+    private final boolean checked;
+
+    private FieldLink[] links = new FieldLink[64];
+    private int size;
+    private int reused;
+    private boolean released;
+
+    public FieldArena(boolean checked) {
+        this.checked = checked;
+    }
+
+    /**
+     * @return the arena that the links created by the calling thread are allocated from or null, if there is none.
+     */
+    public static FieldArena getActive() {
+        return active.get();
+    }
+
+    /**
+     * Makes the given arena the active arena of the calling thread. Passing null deactivates the current arena.
+     */
+    public static void activate(FieldArena arena) {
+        if(arena != null)
+            active.set(arena);
+        else
+            active.remove();
+    }
+
+    static FieldLink newLink(FieldOutput input, int arg, UpdateListener output) {
+        FieldArena a = active.get();
+        return a != null ?
+                a.allocate(input, arg, output) :
+                new FieldLink(input, arg, output);
+    }
+
+    private FieldLink allocate(FieldOutput input, int arg, UpdateListener output) {
+        if(released)
+            throw new IllegalStateException("Field links cannot be allocated from a released arena.");
+
+        FieldLink l = checked ? null : pools.get().poll();
+        if(l != null) {
+            l.init(input, arg, output);
+            reused++;
+        } else
+            l = new FieldLink(input, arg, output);
+
+        if(size == links.length)
+            links = Arrays.copyOf(links, links.length * 2);
+        links[size++] = l;
+        return l;
+    }
+
+    /**
+     * Removes all links allocated from this arena from their inputs and outputs and returns them to the pool of the
+     * calling thread. The final values are not propagated, just like for {@link FieldOutput#disconnect()}. In checked
+     * mode the links are only removed from their inputs and are marked as released.
+     */
+    public void release() {
+        if(released)
+            return;
+        released = true;
+
+        if(active.get() == this)
+            active.remove();
+
+        Pool pool = checked ? null : pools.get();
+        for(int i = 0; i < size; i++) {
+            FieldLink l = links[i];
+            l.getInput().removeOutput(l, false);
+            if(!checked && l.getOutput() instanceof FieldInput)
+                ((FieldInput) l.getOutput()).removeInput(l);
+
+            l.release();
+            if(pool != null)
+                pool.offer(l);
+        }
+        links = null;
+    }
+
+    public boolean isChecked() {
+        return checked;
+    }
+
+    public boolean isReleased() {
+        return released;
+    }
+
+    /**
+     * @return the number of links allocated from this arena.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of allocated links that have been taken from the pool instead of being created.
+     */
+    public int getReused() {
+        return reused;
+    }
+
+    private static class Pool {
+        private FieldLink[] links = new FieldLink[64];
+        private int size;
+
+        FieldLink poll() {
+            if(size == 0)
+                return null;
+
+            FieldLink l = links[--size];
+            links[size] = null;
+            return l;
+        }
+
+        void offer(FieldLink l) {
+            if(size == MAX_POOL_SIZE)
+                return;
+
+            if(size == links.length)
+                links = Arrays.copyOf(links, links.length * 2);
+            links[size++] = l;
+        }
+    }
+}
@@ -26,7 +26,15 @@ public class FieldFunction extends AbstractFunction {
     private DoubleFunction<Double> function;
 
     public FieldFunction(String label, DoubleFunction<Double> f) {
-        super(label);
+        this(label, f, false);
+    }
+
+    /**
+     * @param cached whether the output should be memoized. Only pure functions of the input may be cached, since
+     *               the cache is only invalidated when the input changes.
+     */
+    public FieldFunction(String label, DoubleFunction<Double> f, boolean cached) {
+        super(label, cached);
         this.function = f;
     }
 
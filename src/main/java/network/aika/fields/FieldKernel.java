@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.fields;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A fused evaluation of several unary functions of the same input field, such as the threshold and the activation
+ * function of the net field of an activation. Instead of passing an update node by node through a chain of
+ * {@link FieldFunction}s, each of which queries the current value of its input again, the kernel reads the input value
+ * once and evaluates the outputs directly on the new input value. The values for the old input value are taken from
+ * the caches of the outputs. Functions of an output, like
+ * {@code (isFired * 2) - 1}, are composed with the function of that output and thus evaluated in the same pass.
+ *
+ * The update order is the same as for the equivalent graph of functions: the outputs of the kernel are updated in the
+ * order in which they were created, and chained outputs are registered as receivers of the output they are based on.
+ *
+ * @author Lukas Molzberger
+ */
+public class FieldKernel implements FieldInput {
+
+    private FieldLink input;
+    // The input node is kept after the input link has been removed, so that the outputs remain readable.
+    private FieldOutput inputNode;
+    private String label;
+
+    private List<KernelOutput> outputs = new ArrayList<>(4);
+
+    private boolean evaluating;
+    private double nx;
+
+    public FieldKernel(String label) {
+        this.label = label;
+    }
+
+    @Override
+    public String getLabel() {
+        return label;
+    }
+
+    @Override
+    public void addInput(FieldLink in) {
+        this.input = in;
+        this.inputNode = in.getInput();
+        outputs.forEach(KernelOutput::invalidate);
+    }
+
+    @Override
+    public void removeInput(FieldLink l) {
+        if(input != l)
+            return;
+
+        this.input = null;
+        outputs.forEach(KernelOutput::invalidate);
+    }
+
+    public boolean isInitialized() {
+        return inputNode != null && inputNode.isInitialized();
+    }
+
+    double getInputValue() {
+        return inputNode.getCurrentValue();
+    }
+
+    long getInputVersion() {
+        return inputNode.getVersion();
+    }
+
+    public KernelOutput func(String label, DoubleUnaryOperator f, FieldInput... out) {
+        KernelOutput o = new KernelOutput(this, label, f);
+        outputs.add(o);
+        if(input != null && input.getInput() instanceof FieldNode)
+            o.raiseRank(((FieldNode) input.getInput()).getRank() + 1);
+        o.connectAll(out);
+        return o;
+    }
+
+    public KernelOutput threshold(String label, double threshold, ThresholdOperator.Type type, FieldInput... out) {
+        return func(label, x -> ThresholdOperator.apply(type, threshold, x), out);
+    }
+
+    void remove(KernelOutput o) {
+        outputs.remove(o);
+    }
+
+    @Override
+    public void receiveUpdate(int arg, double u) {
+        if(input == null || !isInitialized())
+            return;
+
+        boolean lastEvaluating = evaluating;
+        double lastNX = nx;
+
+        evaluating = true;
+        nx = getInputValue() + u;
+        try {
+            for(int i = 0; i < outputs.size(); i++)
+                outputs.get(i).evaluate();
+        } finally {
+            evaluating = lastEvaluating;
+            nx = lastNX;
+        }
+    }
+
+    /**
+     * @return the new input value while the kernel is evaluated. The old value is the current value of the input.
+     */
+    double getNewInputValue() {
+        assert evaluating;
+        return nx;
+    }
+
+    public void disconnect() {
+        if(input != null) {
+            input.getInput().removeOutput(input, false);
+            input = null;
+        }
+        new ArrayList<>(outputs).forEach(KernelOutput::disconnect);
+    }
+
+    @Override
+    public String toString() {
+        return label + " " + outputs;
+    }
+}
@@ -25,10 +25,38 @@ public class FieldLink {
     private int arg;
     private UpdateListener output;
 
+    // Positions of this link within the receivers of the input and within the inputs of the output field, so that it
+    // can be removed without scanning these lists. -1 if the link is not stored there.
+    int receiverIndex = -1;
+    int inputIndex = -1;
+
+    private boolean released;
+
     public FieldLink(FieldOutput input, int arg, UpdateListener output) {
+        init(input, arg, output);
+    }
+
+    void init(FieldOutput input, int arg, UpdateListener output) {
         this.input = input;
         this.arg = arg;
         this.output = output;
+        released = false;
+    }
+
+    /**
+     * Called by the {@link FieldArena} after the link has been removed from its input and, unless the arena is
+     * checked, from its output.
+     */
+    void release() {
+        input = null;
+        output = null;
+        receiverIndex = -1;
+        inputIndex = -1;
+        released = true;
+    }
+
+    public boolean isReleased() {
+        return released;
     }
 
     public int getArgument() {
@@ -36,16 +64,17 @@ public class FieldLink {
     }
 
     public FieldOutput getInput() {
+        checkNotReleased();
         return input;
     }
 
     public UpdateListener getOutput() {
+        checkNotReleased();
         return output;
     }
 
-    @Override
-    public boolean equals(Object o) {
-        FieldLink fLink = (FieldLink) o;
-        return arg == fLink.arg && output.equals(fLink.output);
+    private void checkNotReleased() {
+        if(released)
+            throw new IllegalStateException("The field link has been used after its arena was released.");
     }
 }
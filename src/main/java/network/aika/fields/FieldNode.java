@@ -16,15 +16,53 @@
  */
 package network.aika.fields;
 
-import java.util.ArrayList;
-import java.util.List;
+import network.aika.metrics.FieldUpdateCounter;
+
+import java.util.Arrays;
 
 /**
  * @author Lukas Molzberger
  */
 public abstract class FieldNode implements FieldOutput {
 
-    private List<FieldLink> receivers = new ArrayList<>();
+    /**
+     * The receivers are either {@link FieldLink}s or {@link FieldOnTrueEvent} listeners. Most nodes have only one or
+     * two of them, which are therefore stored inline; further receivers go into an array that grows on demand.
+     * Removing a link leaves an empty slot behind, so that the order of the remaining receivers is kept. The empty
+     * slots are compacted once they make up half of the slots.
+     */
+    private Object receiver0;
+    private Object receiver1;
+    private Object[] moreReceivers;
+    private int receiverSlots;
+    private int removedReceivers;
+    private int propagationDepth;
+
+    private boolean shared;
+
+    private int rank;
+
+    /**
+     * Fields of the model, such as the bias of a neuron or the weight of a synapse, are connected to the activations
+     * and links of every thought. Since these thoughts may be processed concurrently, the receivers of a shared field
+     * have to be synchronized.
+     */
+    public void setShared() {
+        shared = true;
+    }
+
+    /**
+     * The rank is one more than the highest rank of the nodes this node has been connected to as a receiver. It is
+     * used to flush the fields of a {@link FieldUpdateBatch} from upstream to downstream.
+     */
+    public int getRank() {
+        return rank;
+    }
+
+    void raiseRank(int r) {
+        if(r > rank)
+            rank = r;
+    }
 
     public abstract double getCurrentValue();
 
@@ -42,7 +80,15 @@ public abstract class FieldNode implements FieldOutput {
 
     @Override
     public void addOutput(FieldLink l, boolean propagateInitValue) {
-        this.receivers.add(l);
+        if(shared) {
+            synchronized (this) {
+                l.receiverIndex = addReceiver(l);
+            }
+        } else
+            l.receiverIndex = addReceiver(l);
+
+        if(l.getOutput() instanceof FieldNode)
+            ((FieldNode) l.getOutput()).raiseRank(rank + 1);
         if(propagateInitValue)
             addInitialCurrentValue(l.getArgument(), l.getOutput());
     }
@@ -51,28 +97,92 @@ public abstract class FieldNode implements FieldOutput {
     public void removeOutput(FieldLink l, boolean propagateFinalValue) {
         if(propagateFinalValue)
             removeFinalCurrentValue(l.getArgument(), l.getOutput());
-        this.receivers.remove(l);
+
+        if(shared) {
+            synchronized (this) {
+                removeReceiver(l);
+            }
+        } else
+            removeReceiver(l);
     }
 
     @Override
     public void addEventListener(FieldOnTrueEvent eventListener) {
-        addOutput(
-                new FieldLink(
-                        null,
-                        0,
-                        (arg, u) -> {
-                            if (u > 0.0)
-                                eventListener.onTrue();
-                        }
-                ),
-                true
-        );
+        if(shared) {
+            synchronized (this) {
+                addReceiver(eventListener);
+            }
+        } else
+            addReceiver(eventListener);
+
+        if(isInitialized() && getCurrentValue() > 0.0)
+            eventListener.onTrue();
+    }
+
+    /**
+     * @return the number of links and event listeners currently receiving the updates of this node.
+     */
+    public int getNumberOfReceivers() {
+        if(shared) {
+            synchronized (this) {
+                return receiverSlots - removedReceivers;
+            }
+        }
+        return receiverSlots - removedReceivers;
+    }
+
+    @Override
+    public FieldLink getOutputLink(int arg, UpdateListener output) {
+        if(shared) {
+            synchronized (this) {
+                return findOutputLink(arg, output);
+            }
+        }
+        return findOutputLink(arg, output);
+    }
+
+    private FieldLink findOutputLink(int arg, UpdateListener output) {
+        for(int i = 0; i < receiverSlots; i++) {
+            Object r = getReceiver(i);
+            if(r instanceof FieldLink) {
+                FieldLink l = (FieldLink) r;
+                if(l.getArgument() == arg && l.getOutput() == output)
+                    return l;
+            }
+        }
+        return null;
     }
 
     protected void propagateUpdate(double update) {
-        receivers.forEach(l ->
-                l.getOutput().receiveUpdate(l.getArgument(), update)
-        );
+        if(FieldUpdateCounter.isEnabled())
+            FieldUpdateCounter.increment();
+
+        if(shared) {
+            synchronized (this) {
+                propagateToReceivers(update);
+            }
+        } else
+            propagateToReceivers(update);
+    }
+
+    private void propagateToReceivers(double update) {
+        propagationDepth++;
+        try {
+            // Receivers that are added while propagating do not receive this update.
+            int n = receiverSlots;
+            for(int i = 0; i < n; i++) {
+                Object r = getReceiver(i);
+                if(r instanceof FieldLink) {
+                    FieldLink l = (FieldLink) r;
+                    l.getOutput().receiveUpdate(l.getArgument(), update);
+                }
+                else if(r != null && update > 0.0)
+                    ((FieldOnTrueEvent) r).onTrue();
+            }
+        } finally {
+            propagationDepth--;
+        }
+        compactReceivers();
     }
 
     protected void propagateUpdate(int arg, UpdateListener listener, double update) {
@@ -81,9 +191,98 @@ public abstract class FieldNode implements FieldOutput {
 
     @Override
     public void disconnect() {
-        receivers.stream()
-                .filter(l -> l.getOutput() instanceof FieldInput)
-                .forEach(l -> ((FieldInput) l.getOutput()).removeInput(l));
-        receivers.clear();
+        if(shared) {
+            synchronized (this) {
+                disconnectReceivers();
+            }
+        } else
+            disconnectReceivers();
+    }
+
+    private void disconnectReceivers() {
+        for(int i = 0; i < receiverSlots; i++) {
+            Object r = getReceiver(i);
+            if(r instanceof FieldLink) {
+                FieldLink l = (FieldLink) r;
+                l.receiverIndex = -1;
+                if(l.getOutput() instanceof FieldInput)
+                    ((FieldInput) l.getOutput()).removeInput(l);
+            }
+        }
+        receiver0 = null;
+        receiver1 = null;
+        moreReceivers = null;
+        receiverSlots = 0;
+        removedReceivers = 0;
+    }
+
+    private Object getReceiver(int i) {
+        if(i == 0)
+            return receiver0;
+        else if(i == 1)
+            return receiver1;
+        else
+            return moreReceivers[i - 2];
+    }
+
+    private void setReceiver(int i, Object r) {
+        if(i == 0)
+            receiver0 = r;
+        else if(i == 1)
+            receiver1 = r;
+        else
+            moreReceivers[i - 2] = r;
+    }
+
+    private int addReceiver(Object r) {
+        int i = receiverSlots++;
+        if(i >= 2) {
+            if(moreReceivers == null)
+                moreReceivers = new Object[2];
+            else if(i - 2 == moreReceivers.length)
+                moreReceivers = Arrays.copyOf(moreReceivers, moreReceivers.length * 2);
+        }
+        setReceiver(i, r);
+        return i;
+    }
+
+    private void removeReceiver(FieldLink l) {
+        int i = l.receiverIndex;
+        if(i < 0 || i >= receiverSlots || getReceiver(i) != l)
+            return;
+
+        setReceiver(i, null);
+        l.receiverIndex = -1;
+        removedReceivers++;
+        compactReceivers();
+    }
+
+    private void compactReceivers() {
+        if(propagationDepth > 0 || removedReceivers == 0 || 2 * removedReceivers < receiverSlots)
+            return;
+
+        int n = 0;
+        for(int i = 0; i < receiverSlots; i++) {
+            Object r = getReceiver(i);
+            if(r == null)
+                continue;
+
+            if(i != n) {
+                setReceiver(n, r);
+                if(r instanceof FieldLink)
+                    ((FieldLink) r).receiverIndex = n;
+            }
+            n++;
+        }
+        for(int i = n; i < receiverSlots; i++)
+            setReceiver(i, null);
+
+        if(n <= 2)
+            moreReceivers = null;
+        else if(n - 2 <= moreReceivers.length / 4)
+            moreReceivers = Arrays.copyOf(moreReceivers, moreReceivers.length / 2);
+
+        receiverSlots = n;
+        removedReceivers = 0;
     }
 }
@@ -27,6 +27,11 @@ public interface FieldOutput {
 
     double getCurrentValue();
 
+    /**
+     * @return a counter that is increased whenever the value of this output may have changed.
+     */
+    long getVersion();
+
     static double getCurrentValue(FieldLink f) {
         return f != null ? f.getInput().getCurrentValue() : 0.0;
     }
@@ -37,5 +42,10 @@ public interface FieldOutput {
 
     void addEventListener(FieldOnTrueEvent eventListener);
 
+    /**
+     * @return the link connecting this output with the given argument of the listener or null, if there is none.
+     */
+    FieldLink getOutputLink(int arg, UpdateListener output);
+
     void disconnect();
 }
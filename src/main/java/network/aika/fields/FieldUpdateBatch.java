@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.fields;
+
+import java.util.*;
+
+/**
+ * An explicit work list for the propagation of field updates. Without a batch, a field propagates its update as soon
+ * as it receives it, so that every field along a chain adds another level to the call stack and a field with several
+ * inputs propagates one partial update per input. While the batch of a thought is active, the fields of this thought
+ * that receive an update are only added to the work list instead. Further updates to a field that is already on the
+ * work list are merged into its pending update. Once the outermost run of the batch ends, the fields are flushed
+ * iteratively in the order of their rank, i.e. their distance from the fields they depend on, so that upstream fields
+ * are usually flushed first.
+ *
+ * Only fields are deferred; functions still pass updates on synchronously to the fields they feed, since they hold no
+ * state of their own. The batch of a thought is only created if batched propagation is enabled in its config, see
+ * {@link network.aika.Thought#getFieldUpdateBatch()}.
+ *
+ * @author Lukas Molzberger
+ */
+public class FieldUpdateBatch {
+
+    private final PriorityQueue<Entry> workList = new PriorityQueue<>();
+    private final Set<Field> queued = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private boolean active;
+    private long sequence;
+
+    private long flushed;
+    private long merged;
+
+    /**
+     * Runs the given task within this batch. If the batch is already active, the task joins it and the pending
+     * updates are flushed by the outermost run.
+     */
+    public void run(Runnable task) {
+        if(active) {
+            task.run();
+            return;
+        }
+
+        active = true;
+        try {
+            task.run();
+            flush();
+        } finally {
+            active = false;
+            clear();
+        }
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * @return the number of fields flushed by this batch.
+     */
+    public long getFlushed() {
+        return flushed;
+    }
+
+    /**
+     * @return the number of updates that have been merged into an already pending update by this batch.
+     */
+    public long getMerged() {
+        return merged;
+    }
+
+    void add(Field f) {
+        if(!queued.add(f)) {
+            merged++;
+            return;
+        }
+
+        workList.add(new Entry(f, f.getRank(), sequence++));
+    }
+
+    private void flush() {
+        Entry e;
+        while((e = workList.poll()) != null) {
+            queued.remove(e.field);
+            flushed++;
+            e.field.triggerInternal();
+        }
+    }
+
+    private void clear() {
+        workList.clear();
+        queued.clear();
+        sequence = 0;
+    }
+
+    private static class Entry implements Comparable<Entry> {
+
+        private final Field field;
+        private final int rank;
+        private final long sequence;
+
+        private Entry(Field field, int rank, long sequence) {
+            this.field = field;
+            this.rank = rank;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Entry e) {
+            int r = Integer.compare(rank, e.rank);
+            return r != 0 ? r : Long.compare(sequence, e.sequence);
+        }
+    }
+}
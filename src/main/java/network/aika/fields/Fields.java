@@ -29,9 +29,17 @@ public class Fields {
     }
 
     public static void connect(FieldOutput in, int arg, FieldInput out) {
-        FieldLink l = new FieldLink(in, arg, out);
+        connect(in, arg, out, true);
+    }
+
+    /**
+     * @param propagateInitValue whether the current value of the input should be passed on to the output as its
+     *                           initial update.
+     */
+    public static void connect(FieldOutput in, int arg, FieldInput out, boolean propagateInitValue) {
+        FieldLink l = FieldArena.newLink(in, arg, out);
         out.addInput(l);
-        in.addOutput(l, true);
+        in.addOutput(l, propagateInitValue);
     }
 
     private static void connectAll(FieldOutput in, FieldInput... out) {
@@ -49,7 +57,10 @@ public class Fields {
     }
 
     public static void disconnect(FieldOutput in, int arg, FieldInput out) {
-        FieldLink l = new FieldLink(in, arg, out);
+        FieldLink l = in.getOutputLink(arg, out);
+        if(l == null)
+            return;
+
         out.removeInput(l);
         in.removeOutput(l, false);
     }
@@ -120,6 +131,19 @@ public class Fields {
         return func;
     }
 
+    /**
+     * Like func, but the output is memoized. Must only be used for functions that depend on nothing but their input.
+     */
+    public static FieldFunction cachedFunc(String label, FieldOutput in, DoubleFunction<Double> f, FieldInput... out) {
+        if(in == null)
+            return null;
+
+        FieldFunction func = new FieldFunction(label, f, true);
+        connect(in, func);
+        connectAll(func, out);
+        return func;
+    }
+
     public static BiFunction func(String label, FieldOutput in1, FieldOutput in2, DoubleBinaryOperator f) {
         if(in1 == null || in2 == null)
             return null;
@@ -146,11 +170,24 @@ public class Fields {
     }
 
     public static ThresholdOperator threshold(String label, double threshold, ThresholdOperator.Type type, FieldOutput in, FieldInput... out) {
-        ThresholdOperator op = threshold(label, threshold, type, in, out);
+        ThresholdOperator op = threshold(label, threshold, type, in);
         connectAll(op, out);
         return op;
     }
 
+    /**
+     * Creates a kernel for the fused evaluation of several functions of the given input. The outputs are added with
+     * {@link FieldKernel#func} and {@link FieldKernel#threshold}.
+     */
+    public static FieldKernel kernel(String label, FieldOutput in) {
+        if(in == null)
+            return null;
+
+        FieldKernel k = new FieldKernel(label);
+        connect(in, k);
+        return k;
+    }
+
     public static InvertFunction invert(String label, FieldOutput in) {
         if(in == null)
             return null;
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.fields;
+
+/**
+ * Memoizes the output of a function node. The cached value is tagged with the version of the inputs it has been
+ * computed from, so that it is only recomputed once an input has changed. In addition, the value computed for an
+ * update is kept, since it becomes the current value as soon as the inputs have acknowledged the update.
+ *
+ * Only function nodes that are pure with respect to their inputs may be memoized. Functions that depend on further
+ * state, like the surprisal of a neuron, are evaluated on every read instead.
+ *
+ * @author Lukas Molzberger
+ */
+class FunctionCache {
+
+    static final long NO_VERSION = -1;
+
+    private long version = NO_VERSION;
+    private double value;
+
+    private boolean hasNext;
+    private double nextArg1;
+    private double nextArg2;
+    private double nextValue;
+
+    boolean isValid(long v) {
+        return v == version;
+    }
+
+    double getValue() {
+        return value;
+    }
+
+    void setValue(long v, double value) {
+        this.version = v;
+        this.value = value;
+    }
+
+    void setNext(double arg1, double arg2, double value) {
+        hasNext = true;
+        nextArg1 = arg1;
+        nextArg2 = arg2;
+        nextValue = value;
+    }
+
+    boolean hasNext(double arg1, double arg2) {
+        return hasNext &&
+                Double.compare(arg1, nextArg1) == 0 &&
+                Double.compare(arg2, nextArg2) == 0;
+    }
+
+    double getNext() {
+        return nextValue;
+    }
+
+    void invalidate() {
+        version = NO_VERSION;
+        hasNext = false;
+    }
+}
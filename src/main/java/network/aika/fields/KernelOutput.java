@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.fields;
+
+import network.aika.utils.Utils;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+
+import static network.aika.fields.Fields.connect;
+
+/**
+ * An output of a {@link FieldKernel}. Its value is a function of the input value of the kernel.
+ *
+ * Only the outputs of the kernel itself are memoized. A chained output is computed from the memoized output it is
+ * based on, by applying the functions of the chain, which are composed into a single function when the output is
+ * created.
+ *
+ * @author Lukas Molzberger
+ */
+public class KernelOutput extends FieldNode implements FieldOutput, UpdateListener {
+
+    private final FieldKernel kernel;
+    private final String label;
+    private final DoubleUnaryOperator function;
+
+    // The memoized output this output is computed from. For the outputs of the kernel itself, this is the output.
+    private final KernelOutput base;
+    private final DoubleUnaryOperator[] chain;
+
+    private FieldLink input;
+
+    private final FunctionCache cache;
+
+    KernelOutput(FieldKernel kernel, String label, DoubleUnaryOperator function) {
+        this.kernel = kernel;
+        this.label = label;
+        this.function = function;
+        this.base = this;
+        this.chain = new DoubleUnaryOperator[] {function};
+        this.cache = new FunctionCache();
+    }
+
+    private KernelOutput(KernelOutput in, String label, DoubleUnaryOperator f) {
+        this.kernel = in.kernel;
+        this.label = label;
+        this.base = in.base;
+        this.chain = in.base == in ?
+                new DoubleUnaryOperator[] {f} :
+                append(in.chain, f);
+        this.function = compose(chain);
+        this.cache = null;
+    }
+
+    private static DoubleUnaryOperator[] append(DoubleUnaryOperator[] chain, DoubleUnaryOperator f) {
+        DoubleUnaryOperator[] result = Arrays.copyOf(chain, chain.length + 1);
+        result[chain.length] = f;
+        return result;
+    }
+
+    private static DoubleUnaryOperator compose(DoubleUnaryOperator[] chain) {
+        if(chain.length == 1)
+            return chain[0];
+
+        return x -> {
+            for(DoubleUnaryOperator f : chain)
+                x = f.applyAsDouble(x);
+            return x;
+        };
+    }
+
+    private boolean isMemoized() {
+        return base == this;
+    }
+
+    /**
+     * Creates an output computing f(x) on the value x of this output. It is evaluated within the same kernel.
+     */
+    public KernelOutput func(String label, DoubleUnaryOperator f, FieldInput... out) {
+        KernelOutput o = new KernelOutput(this, label, f);
+        o.input = new FieldLink(this, 0, o);
+        addOutput(o.input, false);
+        o.connectAll(out);
+        return o;
+    }
+
+    void connectAll(FieldInput... out) {
+        for(FieldInput o : out) {
+            if(o != null)
+                connect(this, 0, o);
+        }
+    }
+
+    @Override
+    public String getLabel() {
+        return label;
+    }
+
+    @Override
+    public boolean isInitialized() {
+        return kernel.isInitialized();
+    }
+
+    @Override
+    public long getVersion() {
+        return kernel.getInputVersion();
+    }
+
+    @Override
+    public double getCurrentValue() {
+        if(!isMemoized())
+            return function.applyAsDouble(base.getCurrentValue());
+
+        long v = getVersion();
+        if(cache.isValid(v))
+            return cache.getValue();
+
+        double x = kernel.getInputValue();
+        double y = cache.hasNext(x, 0.0) ?
+                cache.getNext() :
+                function.applyAsDouble(x);
+
+        cache.setValue(v, y);
+        return y;
+    }
+
+    void evaluate() {
+        double nx = kernel.getNewInputValue();
+        if(!isMemoized()) {
+            propagateUpdate(function.applyAsDouble(base.getNewValue(nx)) - getCurrentValue());
+            return;
+        }
+
+        double nv = function.applyAsDouble(nx);
+        double u = nv - getCurrentValue();
+        cache.setNext(nx, 0.0, nv);
+        propagateUpdate(u);
+    }
+
+    /**
+     * @return the value of this memoized output for the new input value of the kernel, which has been computed by
+     * {@link #evaluate()} before the chained outputs are updated.
+     */
+    private double getNewValue(double nx) {
+        return cache.hasNext(nx, 0.0) ?
+                cache.getNext() :
+                function.applyAsDouble(nx);
+    }
+
+    void invalidate() {
+        if(cache != null)
+            cache.invalidate();
+    }
+
+    /**
+     * Chained outputs are only updated by the output they are based on, while the kernel is evaluated.
+     */
+    @Override
+    public void receiveUpdate(int arg, double u) {
+        evaluate();
+    }
+
+    @Override
+    public void disconnect() {
+        super.disconnect();
+        if(input != null) {
+            input.getInput().removeOutput(input, false);
+            input = null;
+        } else {
+            kernel.remove(this);
+        }
+    }
+
+    @Override
+    public String toString() {
+        if(!isInitialized())
+            return "--";
+
+        return "[v:" + Utils.round(getCurrentValue()) + "]";
+    }
+}
@@ -46,6 +46,10 @@ public class LimitedField extends Field {
     @Override
     public void receiveUpdate(int arg, double u) {
         double cv = isInitialized() ? getCurrentValue() : 0.0;
+        // The pending update of a field on the work list of a batch is applied together with this update.
+        if(getActiveBatch() != null)
+            cv += getPendingUpdate();
+
         double nv = getLimitedValue(cv + u);
         super.receiveUpdate(arg, nv - cv);
     }
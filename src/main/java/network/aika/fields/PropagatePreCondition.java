@@ -21,5 +21,12 @@ package network.aika.fields;
  */
 public interface PropagatePreCondition {
 
-    boolean check(Double cv, double nv, double u);
+    boolean check(double cv, double nv, double u);
+
+    /**
+     * @return a condition that only propagates updates that are not below the given tolerance.
+     */
+    static PropagatePreCondition aboveTolerance(double tolerance) {
+        return (cv, nv, u) -> Math.abs(u) >= tolerance;
+    }
 }
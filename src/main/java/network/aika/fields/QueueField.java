@@ -54,4 +54,12 @@ public class QueueField extends Field {
         isQueued = false;
         triggerInternal();
     }
+
+    /**
+     * The queued step has been removed without being processed. The pending update is kept and will be propagated
+     * together with the next update of this field.
+     */
+    public void cancel() {
+        isQueued = false;
+    }
 }
@@ -38,6 +38,10 @@ public class ThresholdOperator extends AbstractFunction {
 
     @Override
     protected double applyFunction(double x) {
+        return apply(type, threshold, x);
+    }
+
+    public static double apply(Type type, double threshold, double x) {
         switch (type) {
             case ABOVE:
                 return x > threshold ? 1.0 : 0.0;
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.fields;
+
+import java.util.Arrays;
+
+/**
+ * Records the updates a field propagates while the receivers that are meant to process them do not exist yet. Once
+ * they have been created, the updates are replayed to them in the order they were propagated, so that the receivers
+ * end up in the same state as if they had been connected from the start.
+ *
+ * @author Lukas Molzberger
+ */
+public class UpdateRecorder implements FieldInput {
+
+    private static final double[] EMPTY = new double[0];
+
+    private final String label;
+    private FieldLink input;
+
+    private double[] updates = EMPTY;
+    private int size;
+
+    public UpdateRecorder(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Starts recording the updates of the given field, including its current value, if it is already initialized.
+     */
+    public static UpdateRecorder record(String label, FieldOutput in) {
+        UpdateRecorder r = new UpdateRecorder(label);
+        Fields.connect(in, r);
+        return r;
+    }
+
+    @Override
+    public String getLabel() {
+        return label;
+    }
+
+    @Override
+    public void addInput(FieldLink l) {
+        input = l;
+    }
+
+    @Override
+    public void removeInput(FieldLink l) {
+        if(input == l)
+            input = null;
+    }
+
+    @Override
+    public void receiveUpdate(int arg, double u) {
+        if(size == updates.length)
+            updates = Arrays.copyOf(updates, Math.max(2, size * 2));
+
+        updates[size++] = u;
+    }
+
+    /**
+     * @return the number of recorded updates.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Stops recording and passes the recorded updates on to the given receiver.
+     */
+    public void replay(int arg, UpdateListener out) {
+        if(input != null) {
+            input.getInput().removeOutput(input, false);
+            input = null;
+        }
+
+        double[] us = updates;
+        int n = size;
+        updates = EMPTY;
+        size = 0;
+
+        for(int i = 0; i < n; i++)
+            out.receiveUpdate(arg, us[i]);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the field updates propagated by the current thread, as well as the updates that have been held back by the
+ * propagation tolerance of a field. Updates are only counted between {@link #start()} and {@link #stop()}, i.e.
+ * while a thought with metrics processes a step on this thread. As long as no thread is counting, the cost is a
+ * single volatile read per update.
+ *
+ * @author Lukas Molzberger
+ */
+public class FieldUpdateCounter {
+
+    private static final AtomicInteger COUNTING_THREADS = new AtomicInteger();
+
+    private static final ThreadLocal<Counter> COUNTER = ThreadLocal.withInitial(Counter::new);
+
+    public static boolean isEnabled() {
+        return COUNTING_THREADS.get() > 0;
+    }
+
+    /**
+     * Starts counting the updates of the current thread. Calls may be nested, but each one has to be matched by a
+     * call of {@link #stop()}.
+     */
+    public static void start() {
+        if(COUNTER.get().depth++ == 0)
+            COUNTING_THREADS.incrementAndGet();
+    }
+
+    public static void stop() {
+        Counter c = COUNTER.get();
+        if(c.depth > 0 && --c.depth == 0)
+            COUNTING_THREADS.decrementAndGet();
+    }
+
+    public static void increment() {
+        Counter c = COUNTER.get();
+        if(c.depth > 0)
+            c.updates++;
+    }
+
+    public static void incrementSuppressed() {
+        Counter c = COUNTER.get();
+        if(c.depth > 0)
+            c.suppressed++;
+    }
+
+    public static long get() {
+        return COUNTER.get().updates;
+    }
+
+    public static long getSuppressed() {
+        return COUNTER.get().suppressed;
+    }
+
+    private static class Counter {
+        int depth;
+        long updates;
+        long suppressed;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable view of the metrics of one or several thoughts.
+ *
+ * @author Lukas Molzberger
+ */
+public class MetricsSnapshot {
+
+    public static final MetricsSnapshot EMPTY = new MetricsSnapshot(
+            0,
+            Collections.emptyMap(),
+            Collections.emptyMap(),
+            Collections.emptyMap(),
+            Collections.emptyMap(),
+            Collections.emptyMap(),
+            0,
+            0,
+            0,
+            0
+    );
+
+    private final long thoughts;
+    private final Map<String, Long> stepCounts;
+    private final Map<String, Long> stepNanos;
+    private final Map<String, Long> maxQueueDepths;
+    private final Map<String, Long> activationsByNeuronType;
+    private final Map<String, Long> linksBySynapseType;
+    private final long fieldUpdates;
+    private final long suppressedUpdates;
+    private final long deferredGradients;
+    private final long materializedGradients;
+
+    public MetricsSnapshot(long thoughts, Map<String, Long> stepCounts, Map<String, Long> stepNanos, Map<String, Long> maxQueueDepths, Map<String, Long> activationsByNeuronType, Map<String, Long> linksBySynapseType, long fieldUpdates, long suppressedUpdates, long deferredGradients, long materializedGradients) {
+        this.thoughts = thoughts;
+        this.stepCounts = copy(stepCounts);
+        this.stepNanos = copy(stepNanos);
+        this.maxQueueDepths = copy(maxQueueDepths);
+        this.activationsByNeuronType = copy(activationsByNeuronType);
+        this.linksBySynapseType = copy(linksBySynapseType);
+        this.fieldUpdates = fieldUpdates;
+        this.suppressedUpdates = suppressedUpdates;
+        this.deferredGradients = deferredGradients;
+        this.materializedGradients = materializedGradients;
+    }
+
+    private static Map<String, Long> copy(Map<String, Long> m) {
+        return Collections.unmodifiableMap(new TreeMap<>(m));
+    }
+
+    /**
+     * Combines the metrics of two snapshots. Counts and timings are summed up, for the queue depths the maximum is
+     * taken.
+     */
+    public MetricsSnapshot merge(MetricsSnapshot s) {
+        return new MetricsSnapshot(
+                thoughts + s.thoughts,
+                sum(stepCounts, s.stepCounts),
+                sum(stepNanos, s.stepNanos),
+                max(maxQueueDepths, s.maxQueueDepths),
+                sum(activationsByNeuronType, s.activationsByNeuronType),
+                sum(linksBySynapseType, s.linksBySynapseType),
+                fieldUpdates + s.fieldUpdates,
+                suppressedUpdates + s.suppressedUpdates,
+                deferredGradients + s.deferredGradients,
+                materializedGradients + s.materializedGradients
+        );
+    }
+
+    private static Map<String, Long> sum(Map<String, Long> a, Map<String, Long> b) {
+        Map<String, Long> result = new TreeMap<>(a);
+        b.forEach((k, v) -> result.merge(k, v, Long::sum));
+        return result;
+    }
+
+    private static Map<String, Long> max(Map<String, Long> a, Map<String, Long> b) {
+        Map<String, Long> result = new TreeMap<>(a);
+        b.forEach((k, v) -> result.merge(k, v, Math::max));
+        return result;
+    }
+
+    public long getThoughts() {
+        return thoughts;
+    }
+
+    public Map<String, Long> getStepCounts() {
+        return stepCounts;
+    }
+
+    public Map<String, Long> getStepNanos() {
+        return stepNanos;
+    }
+
+    public long getProcessedSteps() {
+        return stepCounts.values().stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    public Map<String, Long> getMaxQueueDepths() {
+        return maxQueueDepths;
+    }
+
+    public Map<String, Long> getActivationsByNeuronType() {
+        return activationsByNeuronType;
+    }
+
+    public Map<String, Long> getLinksBySynapseType() {
+        return linksBySynapseType;
+    }
+
+    public long getFieldUpdates() {
+        return fieldUpdates;
+    }
+
+    /**
+     * @return the number of field updates that were held back, since they were below the propagation tolerance.
+     */
+    public long getSuppressedUpdates() {
+        return suppressedUpdates;
+    }
+
+    /**
+     * @return the number of activations and links whose gradient subgraph was deferred, since no gradient had
+     * reached them yet.
+     */
+    public long getDeferredGradients() {
+        return deferredGradients;
+    }
+
+    public long getMaterializedGradients() {
+        return materializedGradients;
+    }
+
+    /**
+     * @return the number of gradient subgraphs that were never materialized, because no non-zero gradient reached
+     * the corresponding activation or link.
+     */
+    public long getAvoidedGradients() {
+        return deferredGradients - materializedGradients;
+    }
+
+    public String toString() {
+        return "Thoughts:" + thoughts +
+                " Steps:" + stepCounts +
+                " StepNanos:" + stepNanos +
+                " MaxQueueDepths:" + maxQueueDepths +
+                " Activations:" + activationsByNeuronType +
+                " Links:" + linksBySynapseType +
+                " FieldUpdates:" + fieldUpdates +
+                " SuppressedUpdates:" + suppressedUpdates +
+                " Gradients(deferred/materialized):" + deferredGradients + "/" + materializedGradients;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * Aggregates the metrics of all the closed thoughts of a model.
+ *
+ * @author Lukas Molzberger
+ */
+public class ModelMetrics implements ModelMetricsMXBean {
+
+    private volatile MetricsSnapshot snapshot = MetricsSnapshot.EMPTY;
+
+    private ObjectName objectName;
+
+    public synchronized void add(MetricsSnapshot s) {
+        snapshot = snapshot.merge(s);
+    }
+
+    public MetricsSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public synchronized void reset() {
+        snapshot = MetricsSnapshot.EMPTY;
+    }
+
+    /**
+     * Registers these metrics at the platform MBean server.
+     */
+    public synchronized void registerMBean(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            objectName = new ObjectName("network.aika:type=ModelMetrics,name=" + ObjectName.quote(name));
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public synchronized void unregisterMBean() {
+        if(objectName == null)
+            return;
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            throw new RuntimeException(e);
+        }
+        objectName = null;
+    }
+
+    @Override
+    public long getThoughts() {
+        return snapshot.getThoughts();
+    }
+
+    @Override
+    public long getProcessedSteps() {
+        return snapshot.getProcessedSteps();
+    }
+
+    @Override
+    public Map<String, Long> getStepCounts() {
+        return snapshot.getStepCounts();
+    }
+
+    @Override
+    public Map<String, Long> getStepNanos() {
+        return snapshot.getStepNanos();
+    }
+
+    @Override
+    public Map<String, Long> getMaxQueueDepths() {
+        return snapshot.getMaxQueueDepths();
+    }
+
+    @Override
+    public Map<String, Long> getActivationsByNeuronType() {
+        return snapshot.getActivationsByNeuronType();
+    }
+
+    @Override
+    public Map<String, Long> getLinksBySynapseType() {
+        return snapshot.getLinksBySynapseType();
+    }
+
+    @Override
+    public long getFieldUpdates() {
+        return snapshot.getFieldUpdates();
+    }
+
+    @Override
+    public long getSuppressedUpdates() {
+        return snapshot.getSuppressedUpdates();
+    }
+
+    @Override
+    public long getDeferredGradients() {
+        return snapshot.getDeferredGradients();
+    }
+
+    @Override
+    public long getMaterializedGradients() {
+        return snapshot.getMaterializedGradients();
+    }
+
+    @Override
+    public long getAvoidedGradients() {
+        return snapshot.getAvoidedGradients();
+    }
+}
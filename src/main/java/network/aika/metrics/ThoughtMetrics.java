@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.metrics;
+
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.activation.Link;
+import network.aika.steps.Phase;
+import network.aika.steps.Step;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records the metrics of a single thought. Like the thought itself, instances are confined to the processing thread.
+ *
+ * @author Lukas Molzberger
+ */
+public class ThoughtMetrics {
+
+    private final Map<Class<?>, long[]> steps = new HashMap<>();
+
+    private final int[] queueDepth = new int[Phase.values().length];
+    private final int[] maxQueueDepth = new int[Phase.values().length];
+
+    private final Map<Class<?>, long[]> activations = new HashMap<>();
+    private final Map<Class<?>, long[]> links = new HashMap<>();
+
+    private long fieldUpdates;
+    private long suppressedUpdates;
+
+    private long deferredGradients;
+    private long materializedGradients;
+
+    public void onStepQueued(Phase p) {
+        int i = p.ordinal();
+        if(++queueDepth[i] > maxQueueDepth[i])
+            maxQueueDepth[i] = queueDepth[i];
+    }
+
+    public void onStepDequeued(Phase p) {
+        int i = p.ordinal();
+        if(queueDepth[i] > 0)
+            queueDepth[i]--;
+    }
+
+    public void onStepProcessed(Step s, long nanos, long updates, long suppressed) {
+        long[] stats = steps.computeIfAbsent(s.getClass(), c -> new long[2]);
+        stats[0]++;
+        stats[1] += nanos;
+
+        fieldUpdates += updates;
+        suppressedUpdates += suppressed;
+    }
+
+    public void addFieldUpdates(long updates, long suppressed) {
+        fieldUpdates += updates;
+        suppressedUpdates += suppressed;
+    }
+
+    public void onActivationCreated(Activation act) {
+        activations.computeIfAbsent(act.getNeuron().getClass(), c -> new long[1])[0]++;
+    }
+
+    public void onLinkCreated(Link l) {
+        links.computeIfAbsent(l.getSynapse().getClass(), c -> new long[1])[0]++;
+    }
+
+    /**
+     * An activation or link has deferred the creation of its gradient subgraph until a non-zero gradient arrives.
+     */
+    public void onGradientsDeferred() {
+        deferredGradients++;
+    }
+
+    public void onGradientsMaterialized() {
+        materializedGradients++;
+    }
+
+    public MetricsSnapshot snapshot() {
+        Map<String, Long> stepCounts = new HashMap<>();
+        Map<String, Long> stepNanos = new HashMap<>();
+        steps.forEach((c, stats) -> {
+            stepCounts.merge(c.getSimpleName(), stats[0], Long::sum);
+            stepNanos.merge(c.getSimpleName(), stats[1], Long::sum);
+        });
+
+        Map<String, Long> maxDepth = new HashMap<>();
+        for(Phase p: Phase.values())
+            maxDepth.put(p.name(), (long) maxQueueDepth[p.ordinal()]);
+
+        return new MetricsSnapshot(
+                1,
+                stepCounts,
+                stepNanos,
+                maxDepth,
+                toNames(activations),
+                toNames(links),
+                fieldUpdates,
+                suppressedUpdates,
+                deferredGradients,
+                materializedGradients
+        );
+    }
+
+    private static Map<String, Long> toNames(Map<Class<?>, long[]> counts) {
+        Map<String, Long> result = new HashMap<>();
+        counts.forEach((c, count) ->
+                result.merge(c.getSimpleName(), count[0], Long::sum)
+        );
+        return result;
+    }
+}
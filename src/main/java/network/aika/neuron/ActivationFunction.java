@@ -47,6 +47,31 @@ public enum ActivationFunction {
         return outerGrad.f(x);
     }
 
+    /**
+     * An upper bound of |f(nv) - f(cv)| that does not require evaluating f, given a lower bound fcv of f(cv). Both
+     * functions are Lipschitz continuous with constant 1, and the slope of the hyperbolic tangent decreases with its
+     * value, which is at least fcv - |nv - cv| on the whole interval.
+     */
+    public double maxChange(double cv, double nv, double fcv) {
+        double d = Math.abs(nv - cv);
+        switch (this) {
+            case RECTIFIED_HYPERBOLIC_TANGENT:
+                if(cv <= 0.0 && nv <= 0.0)
+                    return 0.0;
+                if(cv < 0.0 || nv < 0.0)
+                    return d;
+
+                double t = Math.max(0.0, fcv - d);
+                return d * (1.0 - (t * t));
+            case LIMITED_RECTIFIED_LINEAR_UNIT:
+                if((cv <= 0.0 && nv <= 0.0) || (cv >= 1.0 && nv >= 1.0))
+                    return 0.0;
+                return d;
+            default:
+                return d;
+        }
+    }
+
     interface Function {
         double f(double x);
     }
@@ -34,6 +34,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -60,8 +61,12 @@ public abstract class Neuron<S extends Synapse, A extends Activation> implements
         setModified();
     });
 
-    protected List<S> inputSynapses = new ArrayList<>();
-    protected List<Synapse> outputSynapses = new ArrayList<>();
+    {
+        bias.setShared();
+    }
+
+    protected List<S> inputSynapses = new CopyOnWriteArrayList<>();
+    protected List<Synapse> outputSynapses = new CopyOnWriteArrayList<>();
 
     protected final ReadWriteLock lock = new ReadWriteLock();
 
@@ -76,8 +81,6 @@ public abstract class Neuron<S extends Synapse, A extends Activation> implements
 
     private TemplateNeuron templateInfo;
 
-    private WeakHashMap<Long, SortedSet<A>> activations = new WeakHashMap<>();
-
     protected Neuron() {
     }
 
@@ -91,18 +94,6 @@ public abstract class Neuron<S extends Synapse, A extends Activation> implements
         setModified();
     }
 
-    public void register(A act) {
-        Thought t = act.getThought();
-        synchronized (activations) {
-            activations
-                    .computeIfAbsent(
-                            t.getId(),
-                            n -> initActivationsSet(t)
-                    )
-                    .add(act);
-        }
-    }
-
     public boolean templateNeuronMatches(Neuron<?, ?> targetN) {
         return getTemplateGroup().stream()
                 .anyMatch(tn ->
@@ -110,18 +101,14 @@ public abstract class Neuron<S extends Synapse, A extends Activation> implements
                 );
     }
 
-    private TreeSet<A> initActivationsSet(Thought t) {
-        TreeSet<A> acts = new TreeSet<>();
-        t.register(provider, acts);
-        return acts;
-    }
-
+    /**
+     * The activations of this neuron are kept by the thought they belong to.
+     */
     public SortedSet<A> getActivations(Thought t) {
         if(t == null)
             return Collections.emptySortedSet();
 
-        SortedSet<A> acts = activations.get(t.getId());
-        return acts != null ? acts : Collections.emptyNavigableSet();
+        return t.getActivations(provider);
     }
 
     public TemplateNeuron getTemplateInfo() {
@@ -440,15 +427,19 @@ public abstract class Neuron<S extends Synapse, A extends Activation> implements
 
         bias.readFields(in, m);
 
+        List<S> inSyns = new ArrayList<>();
         while (in.readBoolean()) {
             S syn = (S) Synapse.read(in, m);
-            inputSynapses.add(syn);
+            inSyns.add(syn);
         }
+        inputSynapses.addAll(inSyns);
 
+        List<Synapse> outSyns = new ArrayList<>();
         while (in.readBoolean()) {
             Synapse syn = Synapse.read(in, m);
-            outputSynapses.add(syn);
+            outSyns.add(syn);
         }
+        outputSynapses.addAll(outSyns);
 
         frequency = in.readDouble();
         sampleSpace = SampleSpace.read(in, m);
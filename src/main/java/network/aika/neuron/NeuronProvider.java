@@ -65,10 +65,11 @@ public class NeuronProvider implements Comparable<NeuronProvider> {
     }
 
     public Neuron getNeuron() {
-        if (neuron == null)
-            reactivate();
+        Neuron n = neuron;
+        if (n == null)
+            n = reactivate();
 
-        return neuron;
+        return n;
     }
 
     public void setNeuron(Neuron<?, ?> n) {
@@ -131,21 +132,31 @@ public class NeuronProvider implements Comparable<NeuronProvider> {
         neuron.resetModified();
     }
 
-    private void reactivate() {
+    /**
+     * Several thoughts may request the same suspended neuron concurrently. The neuron is therefore loaded while
+     * holding the provider's monitor and only published once it is fully initialized.
+     */
+    private synchronized Neuron reactivate() {
+        if(neuron != null)
+            return neuron;
+
         assert model.getSuspensionHook() != null;
 
+        Neuron n;
         try (DataInputStream dis = getDataInputStream(
                 model.getSuspensionHook().retrieve(id),
                 ENABLE_COMPRESSION
         )) {
-            neuron = Neuron.read(dis, model);
+            n = Neuron.read(dis, model);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
-        neuron.setProvider(this);
+        n.setProvider(this);
 
-        neuron.reactivate(model);
+        n.reactivate(model);
+        neuron = n;
         model.register(this);
+        return n;
     }
 
     private DataOutputStream getDataOutputStream(OutputStream os, boolean compressed) throws IOException {
@@ -62,6 +62,10 @@ public abstract class Synapse<S extends Synapse, I extends Neuron & Axon, O exte
         setModified();
     });
 
+    {
+        weight.setShared();
+    }
+
     protected SampleSpace sampleSpace = new SampleSpace();
 
     protected double frequencyIPosOPos;
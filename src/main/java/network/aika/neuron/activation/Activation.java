@@ -21,18 +21,21 @@ import network.aika.Model;
 import network.aika.Thought;
 import network.aika.direction.Direction;
 import network.aika.fields.*;
+import network.aika.metrics.ThoughtMetrics;
 import network.aika.neuron.*;
 import network.aika.neuron.bindingsignal.BindingSignal;
 import network.aika.sign.Sign;
 import network.aika.steps.activation.Counting;
 import network.aika.steps.activation.InactiveLinks;
 import network.aika.steps.activation.Propagate;
+import network.aika.utils.SmallIdMap;
+import network.aika.utils.SmallIdPairMap;
 import network.aika.utils.Utils;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
-import static java.lang.Integer.MAX_VALUE;
 import static network.aika.fields.Fields.*;
 import static network.aika.fields.ThresholdOperator.Type.ABOVE;
 import static network.aika.fields.ThresholdOperator.Type.ABOVE_ABS;
@@ -53,19 +56,21 @@ public abstract class Activation<N extends Neuron> extends Element<Activation> {
     protected N neuron;
     protected Thought thought;
 
-    protected Timestamp creationTimestamp = NOT_SET;
-    protected Timestamp fired = NOT_SET;
+    protected long creationTimestamp = NOT_SET;
+    protected long fired = NOT_SET;
 
     protected Field value = new Field(this, "value");
     protected FieldOutput finalValue;
     protected Field net = initNet();
+    protected FieldKernel netKernel;
 
-    protected FieldOutput isFired;
+    protected KernelOutput isFired;
     protected FieldOutput isFiredForWeight;
     protected FieldOutput isFiredForBias;
 
     protected Field isFinal;
 
+    // The gradient fields are created once the activation is final and training is enabled, until then they are null.
     private FieldFunction entropy;
     protected FieldFunction netOuterGradient;
     protected Field ownInputGradient;
@@ -76,14 +81,16 @@ public abstract class Activation<N extends Neuron> extends Element<Activation> {
     protected FieldOutput updateValue;
     protected FieldOutput inductionThreshold;
 
-    protected Map<NeuronProvider, Link> inputLinks;
-    protected NavigableMap<OutputKey, Link> outputLinks;
+    // The updates of the input gradients, while the rest of the gradient subgraph is deferred.
+    private UpdateRecorder ownInputGradientUpdates;
+    private UpdateRecorder backpropInputGradientUpdates;
 
-    protected SortedMap<Activation<?>, BindingSignal> bindingSignals = new TreeMap<>(
-            Comparator.comparing(Activation::getId)
-    );
+    protected SmallIdMap<Link> inputLinks;
+    protected SmallIdPairMap<Link> outputLinks;
 
-    protected NavigableMap<Activation<?>, BindingSignal> reverseBindingSignals = new TreeMap<>(NEURON_COMPARATOR);
+    protected SmallIdMap<BindingSignal> bindingSignals = new SmallIdMap<>();
+
+    protected SmallIdPairMap<BindingSignal> reverseBindingSignals = new SmallIdPairMap<>();
 
 
     protected Activation(int id, N n) {
@@ -95,8 +102,8 @@ public abstract class Activation<N extends Neuron> extends Element<Activation> {
         this(id, n);
         this.thought = t;
 
-        inputLinks = new TreeMap<>();
-        outputLinks = new TreeMap<>(OutputKey.COMPARATOR);
+        inputLinks = new SmallIdMap<>();
+        outputLinks = new SmallIdPairMap<>();
 
         isFinal = new Field(this, "isFinal", isTemplate() ? 1.0 : 0.0);
 
@@ -105,12 +112,13 @@ public abstract class Activation<N extends Neuron> extends Element<Activation> {
                 initGradientFields();
         });
 
-        net.setPropagatePreCondition((cv, nv, u) ->
-                !Utils.belowTolerance(u) && (cv >= 0.0 || nv >= 0.0)
-        );
+        net.setPropagatePreCondition(createNetPreCondition());
+        initTolerances(FieldKind.VALUE, FieldKind.IS_FINAL);
         connect(getNeuron().getBias(), net);
 
-        isFired = threshold("isFired", 0.0, ABOVE, net);
+        netKernel = kernel("net-kernel", net);
+
+        isFired = netKernel.threshold("isFired", 0.0, ABOVE);
 
         isFired.addEventListener(() -> {
                     fired = thought.getCurrentTimestamp();
@@ -120,8 +128,8 @@ public abstract class Activation<N extends Neuron> extends Element<Activation> {
                 }
         );
 
-        isFiredForWeight = func("(isFired * 2) - 1", isFired, x -> (x * 2.0) - 1.0);
-        isFiredForBias = func("(isFired * -1) + 1", isFired, x -> (x * -1.0) + 1.0);
+        isFiredForWeight = isFired.func("(isFired * 2) - 1", x -> (x * 2.0) - 1.0);
+        isFiredForBias = isFired.func("(isFired * -1) + 1", x -> (x * -1.0) + 1.0);
 
         Multiplication onFinalFired = mul("isFinalFired", isFired, isFinal);
         onFinalFired.addEventListener(() -> {
@@ -139,7 +147,58 @@ public abstract class Activation<N extends Neuron> extends Element<Activation> {
         );
 
         thought.register(this);
-        neuron.register(this);
+    }
+
+    /**
+     * Updates of the net are held back while it stays negative, since they neither affect the value nor whether the
+     * activation is fired.
+     */
+    private PropagatePreCondition createNetPreCondition() {
+        Config c = getConfig();
+        if(c == null || (!c.hasCustomTolerance() && !c.isAdaptiveToleranceEnabled()))
+            return (cv, nv, u) ->
+                    !Utils.belowTolerance(u) && (cv >= 0.0 || nv >= 0.0);
+
+        double tolerance = c.getTolerance(FieldKind.NET);
+        if(!c.isAdaptiveToleranceEnabled() || c.isTrainingEnabled())
+            return (cv, nv, u) ->
+                    Math.abs(u) >= tolerance && (cv >= 0.0 || nv >= 0.0);
+
+        double valueTolerance = c.getTolerance(FieldKind.VALUE);
+        return (cv, nv, u) ->
+                Math.abs(u) >= tolerance && (cv >= 0.0 || nv >= 0.0) &&
+                        !isNegligibleNetUpdate(cv, nv, valueTolerance);
+    }
+
+    /**
+     * Without training, the net only determines whether the activation is fired and its value f(net). An update of
+     * the net is negligible if it does not cross the firing threshold and changes the value by less than the
+     * tolerance. Since the value may itself lag behind f(net) by up to the tolerance, the bound is computed with this
+     * margin. An update of the value that is still pending in a batch is part of the value.
+     */
+    protected boolean isNegligibleNetUpdate(double cv, double nv, double valueTolerance) {
+        if((cv > 0.0) != (nv > 0.0) || !value.isInitialized())
+            return false;
+
+        double fcv = Math.max(0.0, value.getCurrentValue() + value.getPendingUpdate() - valueTolerance);
+        return getActivationFunction().maxChange(cv, nv, fcv) < valueTolerance;
+    }
+
+    /**
+     * Installs the tolerances of the config for the given kinds of fields, unless the default tolerance is used.
+     */
+    protected void initTolerances(FieldKind... kinds) {
+        Config c = getConfig();
+        if(c == null || !c.hasCustomTolerance())
+            return;
+
+        for(FieldKind k: kinds) {
+            Field f = k.getField(this);
+            if(f != null)
+                f.setPropagatePreCondition(
+                        PropagatePreCondition.aboveTolerance(c.getTolerance(k))
+                );
+        }
     }
 
     protected Field initNet() {
@@ -152,8 +211,10 @@ public abstract class Activation<N extends Neuron> extends Element<Activation> {
 
         ownInputGradient = new QueueField(this, "Own-Input-Gradient");
         backpropInputGradient = new QueueField(this, "Backprop-Input-Gradient", 0.0);
-        ownOutputGradient = new QueueField(this, "Own-Output-Gradient");
-        backpropOutputGradient = new QueueField(this, "Backprop-Output-Gradient");
+        initTolerances(
+                FieldKind.OWN_INPUT_GRADIENT,
+                FieldKind.BACKPROP_INPUT_GRADIENT
+        );
 
         entropy = func("Entropy", net, x ->
                         getNeuron().getSurprisal(
@@ -164,11 +225,79 @@ public abstract class Activation<N extends Neuron> extends Element<Activation> {
                 ownInputGradient
         );
 
-        netOuterGradient =
-                func("f'(net)",
-                        net,
-                        x -> getNeuron().getActivationFunction().outerGrad(x)
-        );
+        if(getConfig().isLazyGradientsEnabled())
+            deferOutputGradients();
+        else
+            initOutputGradients();
+    }
+
+    /**
+     * Until a non-zero gradient reaches one of the input gradients, the rest of the gradient subgraph would only
+     * receive zero updates. Its construction is therefore deferred, while the updates of the input gradients are
+     * recorded, see {@link #materializeGradients()}.
+     */
+    private void deferOutputGradients() {
+        ownInputGradientUpdates = UpdateRecorder.record("Own-Input-Gradient-Updates", ownInputGradient);
+        backpropInputGradientUpdates = UpdateRecorder.record("Backprop-Input-Gradient-Updates", backpropInputGradient);
+
+        ownInputGradient.setOnFirstNonZeroUpdate(this::materializeGradients);
+        backpropInputGradient.setOnFirstNonZeroUpdate(this::materializeGradients);
+
+        ThoughtMetrics metrics = thought.getMetrics();
+        if(metrics != null)
+            metrics.onGradientsDeferred();
+    }
+
+    public boolean isGradientMaterialized() {
+        return ownOutputGradient != null;
+    }
+
+    /**
+     * Builds the deferred part of the gradient subgraph right before the first non-zero update of an input gradient
+     * is propagated. The input gradients are connected without their current value. Instead, the updates they have
+     * propagated so far are replayed, after the sinks of the input links have been built as well, so that every
+     * field ends up in the state of the eager construction. The triggering update then reaches the new fields
+     * incrementally.
+     */
+    protected void materializeGradients() {
+        if(isGradientMaterialized())
+            return;
+
+        ownInputGradient.setOnFirstNonZeroUpdate(null);
+        backpropInputGradient.setOnFirstNonZeroUpdate(null);
+
+        ThoughtMetrics metrics = thought.getMetrics();
+        if(metrics != null)
+            metrics.onGradientsMaterialized();
+
+        initOutputGradientFields();
+
+        Multiplication ownOutputGradientInput = replayableMul(ownInputGradient, ownOutputGradient);
+        Multiplication backpropOutputGradientInput = replayableMul(backpropInputGradient, backpropOutputGradient);
+
+        initUpdateValue();
+
+        inputLinks.forEach(Link::materializeGradients);
+
+        UpdateRecorder ownUpdates = ownInputGradientUpdates;
+        UpdateRecorder backpropUpdates = backpropInputGradientUpdates;
+        ownInputGradientUpdates = null;
+        backpropInputGradientUpdates = null;
+
+        ownUpdates.replay(1, ownOutputGradientInput);
+        backpropUpdates.replay(1, backpropOutputGradientInput);
+    }
+
+    private Multiplication replayableMul(Field inputGradient, Field outputGradient) {
+        Multiplication m = new Multiplication("ig * f'(net)");
+        connect(inputGradient, 1, m, false);
+        connect(netOuterGradient, 2, m);
+        connect(m, 0, outputGradient, false);
+        return m;
+    }
+
+    private void initOutputGradients() {
+        initOutputGradientFields();
 
         mul(
                 "ig * f'(net)",
@@ -184,6 +313,25 @@ public abstract class Activation<N extends Neuron> extends Element<Activation> {
                 backpropOutputGradient
         );
 
+        initUpdateValue();
+    }
+
+    private void initOutputGradientFields() {
+        ownOutputGradient = new QueueField(this, "Own-Output-Gradient");
+        backpropOutputGradient = new QueueField(this, "Backprop-Output-Gradient");
+        initTolerances(
+                FieldKind.OWN_OUTPUT_GRADIENT,
+                FieldKind.BACKPROP_OUTPUT_GRADIENT
+        );
+
+        netOuterGradient =
+                cachedFunc("f'(net)",
+                        net,
+                        x -> getNeuron().getActivationFunction().outerGrad(x)
+        );
+    }
+
+    private void initUpdateValue() {
         outputGradient = add(
                 "ownOG + backpropOG",
                 ownOutputGradient,
@@ -225,9 +373,8 @@ public abstract class Activation<N extends Neuron> extends Element<Activation> {
     }
 
     protected void initFields() {
-        func(
+        netKernel.func(
                 "f(net)",
-                net,
                 x -> getActivationFunction().f(x),
                 value
         );
@@ -296,7 +443,7 @@ public abstract class Activation<N extends Neuron> extends Element<Activation> {
         return net;
     }
 
-    public Timestamp getCreationTimestamp() {
+    public long getCreationTimestamp() {
         return creationTimestamp;
     }
 
@@ -304,7 +451,7 @@ public abstract class Activation<N extends Neuron> extends Element<Activation> {
         this.creationTimestamp = thought.getCurrentTimestamp();
     }
 
-    public Timestamp getFired() {
+    public long getFired() {
         return fired;
     }
 
@@ -343,7 +490,7 @@ public abstract class Activation<N extends Neuron> extends Element<Activation> {
     }
 
     public Stream<? extends BindingSignal> getBindingSignals() {
-        return getPatternBindingSignals().values().stream();
+        return getPatternBindingSignals().stream();
     }
 
     public BindingSignal addBindingSignal(BindingSignal bindingSignal) {
@@ -357,31 +504,53 @@ public abstract class Activation<N extends Neuron> extends Element<Activation> {
     public void registerBindingSignal(BindingSignal bs) {
         bs.getOnArrived().set(1.0);
 
-        bindingSignals.put(bs.getOriginActivation(), bs);
+        bindingSignals.put(bs.getOriginActivation().getId(), bs);
     }
 
-    public Map<Activation<?>, BindingSignal> getPatternBindingSignals() {
+    public SmallIdMap<BindingSignal> getPatternBindingSignals() {
         return bindingSignals;
     }
 
     public void registerReverseBindingSignal(Activation targetAct, BindingSignal bindingSignal) {
-        reverseBindingSignals.put(targetAct, bindingSignal);
+        reverseBindingSignals.put(targetAct.getNeuronProvider().getId(), targetAct.getId(), bindingSignal);
+    }
+
+    public void unregisterReverseBindingSignal(Activation targetAct, BindingSignal bindingSignal) {
+        reverseBindingSignals.remove(targetAct.getNeuronProvider().getId(), targetAct.getId(), bindingSignal);
     }
 
     public Stream<BindingSignal> getReverseBindingSignals(Neuron toNeuron) {
         if(toNeuron.isTemplate()) {
-            return reverseBindingSignals.values().stream()
+            return reverseBindingSignals.stream()
                     .filter(bs -> bs.getActivation().getNeuron().templateNeuronMatches(toNeuron));
         } else {
-            return reverseBindingSignals.subMap(
-                    new DummyActivation(0, toNeuron),
-                    new DummyActivation(Integer.MAX_VALUE, toNeuron)
-            ).values().stream();
+            return reverseBindingSignals.stream(toNeuron.getId());
+        }
+    }
+
+    /**
+     * Visits the reverse binding signals leading to activations of the given neuron without allocating a stream.
+     */
+    public void forEachReverseBindingSignal(Neuron toNeuron, Consumer<? super BindingSignal> visitor) {
+        if(toNeuron.isTemplate()) {
+            reverseBindingSignals.forEach(bs -> {
+                if(bs.getActivation().getNeuron().templateNeuronMatches(toNeuron))
+                    visitor.accept(bs);
+            });
+        } else {
+            reverseBindingSignals.forEach(toNeuron.getId(), visitor);
         }
     }
 
+    public boolean hasReverseBindingSignals(Neuron toNeuron) {
+        if(toNeuron.isTemplate())
+            return getReverseBindingSignals(toNeuron).findAny().isPresent();
+
+        return reverseBindingSignals.containsNeuron(toNeuron.getId());
+    }
+
     public BindingSignal getBindingSignal(Activation act) {
-        return bindingSignals.get(act);
+        return bindingSignals.get(act.getId());
     }
 
     @Override
@@ -389,10 +558,6 @@ public abstract class Activation<N extends Neuron> extends Element<Activation> {
         return ID_COMPARATOR.compare(this, act);
     }
 
-    public OutputKey getOutputKey() {
-        return new OutputKey(getNeuronProvider(), getId());
-    }
-
     public String getLabel() {
         return getNeuron().getLabel();
     }
@@ -422,15 +587,15 @@ public abstract class Activation<N extends Neuron> extends Element<Activation> {
     }
 
     public Link getInputLink(Neuron n) {
-        return inputLinks.get(n.getProvider());
+        return inputLinks.get(n.getId());
     }
 
     public Link getInputLink(Synapse s) {
-        return inputLinks.get(s.getPInput());
+        return inputLinks.get(s.getPInput().getId());
     }
 
     public boolean inputLinkExists(Synapse s) {
-        return inputLinks.containsKey(s.getPInput());
+        return inputLinks.containsKey(s.getPInput().getId());
     }
 
     public boolean linkExists(Direction dir, Synapse ts, boolean template) {
@@ -438,41 +603,31 @@ public abstract class Activation<N extends Neuron> extends Element<Activation> {
                 dir.getLinks(this)
                         .map(Link::getSynapse)
                         .anyMatch(s -> s.isOfTemplate(ts)) :
-                !getOutputLinks(ts).isEmpty();
+                outputLinks.containsNeuron(ts.getOutput().getId());
     }
 
-    public SortedMap<OutputKey, Link> getOutputLinks(Synapse s) {
-        return outputLinks
-                .subMap(
-                        new OutputKey(s.getOutput().getProvider(), Integer.MIN_VALUE),
-                        true,
-                        new OutputKey(s.getOutput().getProvider(), MAX_VALUE),
-                        true
-                );
+    public Stream<Link> getOutputLinks(Synapse s) {
+        return outputLinks.stream(s.getOutput().getId());
+    }
+
+    public void forEachOutputLink(Synapse s, Consumer<? super Link> visitor) {
+        outputLinks.forEach(s.getOutput().getId(), visitor);
     }
 
     public void linkInputs() {
-        inputLinks
-                .values()
-                .forEach(Link::linkInput);
+        inputLinks.forEach(Link::linkInput);
     }
 
     public void unlinkInputs() {
-        inputLinks
-                .values()
-                .forEach(Link::unlinkInput);
+        inputLinks.forEach(Link::unlinkInput);
     }
 
     public void linkOutputs() {
-        outputLinks
-                .values()
-                .forEach(Link::linkOutput);
+        outputLinks.forEach(Link::linkOutput);
     }
 
     public void unlinkOutputs() {
-        outputLinks
-                .values()
-                .forEach(Link::unlinkOutput);
+        outputLinks.forEach(Link::unlinkOutput);
     }
 
     public void link() {
@@ -486,6 +641,9 @@ public abstract class Activation<N extends Neuron> extends Element<Activation> {
     }
 
     public void disconnect() {
+        if(netKernel != null)
+            netKernel.disconnect();
+
         FieldOutput[] fields = new FieldOutput[] {
                 net,
                 value,
@@ -510,12 +668,34 @@ public abstract class Activation<N extends Neuron> extends Element<Activation> {
         }
     }
 
+    /**
+     * Detaches this activation from its thought, e.g. once it has been finalized and fallen behind the window of a
+     * streaming document. The input and output links are disconnected from the field graph and removed from the
+     * linked activations, the binding signals pointing to or originating from this activation are removed from the
+     * related activations and the activation is unregistered from its thought. Its own values remain readable.
+     */
+    public void detach() {
+        inputLinks.forEach(Link::disconnect);
+        outputLinks.forEach(Link::disconnect);
+        unlink();
+
+        bindingSignals.forEach(bs ->
+                bs.getOriginActivation().unregisterReverseBindingSignal(this, bs)
+        );
+        reverseBindingSignals.forEach(bs ->
+                bs.getActivation().bindingSignals.remove(id, bs)
+        );
+
+        disconnect();
+        thought.unregister(this);
+    }
+
     public Stream<Link> getInputLinks() {
-        return inputLinks.values().stream();
+        return inputLinks.stream();
     }
 
     public Stream<Link> getOutputLinks() {
-        return outputLinks.values().stream();
+        return outputLinks.stream();
     }
 
     public String toString() {
@@ -18,8 +18,8 @@ package network.aika.neuron.activation;
 
 import network.aika.Thought;
 import network.aika.fields.Field;
-import network.aika.fields.FieldFunction;
 import network.aika.fields.FieldOutput;
+import network.aika.fields.KernelOutput;
 import network.aika.neuron.Neuron;
 import network.aika.neuron.Range;
 import network.aika.neuron.Synapse;
@@ -32,7 +32,7 @@ import java.util.*;
 import java.util.stream.Stream;
 
 import static network.aika.fields.Fields.*;
-import static network.aika.neuron.activation.Timestamp.NOT_SET_AFTER;
+import static network.aika.neuron.activation.Timestamp.compareNotSetAfter;
 import static network.aika.neuron.bindingsignal.State.*;
 import static network.aika.steps.LinkingOrder.POST_FIRED;
 
@@ -47,7 +47,7 @@ public class BindingActivation extends ConjunctiveActivation<BindingNeuron> {
     private final Set<BindingActivation> branches = new TreeSet<>();
     private BindingActivation mainBranch;
     private FieldOutput branchProbability;
-    private FieldFunction expNet;
+    private KernelOutput expNet;
     private Field bpNorm = new Field(this, "BP-Norm", 1.0);
 
     private boolean isInput;
@@ -59,9 +59,8 @@ public class BindingActivation extends ConjunctiveActivation<BindingNeuron> {
     public BindingActivation(int id, Thought t, BindingNeuron n) {
         super(id, t, n);
 
-        expNet = func(
+        expNet = netKernel.func(
                 "exp(net)",
-                net,
                 x -> Math.exp(x),
                 bpNorm
         );
@@ -84,7 +83,7 @@ public class BindingActivation extends ConjunctiveActivation<BindingNeuron> {
         );
 
         if(!isInput()) {
-            func(
+            cachedFunc(
                     "f(bp * net)",
                     mul(
                             "bp * net",
@@ -97,6 +96,14 @@ public class BindingActivation extends ConjunctiveActivation<BindingNeuron> {
         }
     }
 
+    /**
+     * The net of a binding activation also determines its branch probability, so its updates are never negligible.
+     */
+    @Override
+    protected boolean isNegligibleNetUpdate(double cv, double nv, double valueTolerance) {
+        return false;
+    }
+
     @Override
     protected void initFields() {
         // Override parent
@@ -160,19 +167,16 @@ public class BindingActivation extends ConjunctiveActivation<BindingNeuron> {
     }
 
     public void registerReverseBindingSignal(Activation targetAct, BindingSignal bindingSignal) {
-        reverseBindingSignals.put(targetAct, bindingSignal);
+        reverseBindingSignals.put(targetAct.getNeuronProvider().getId(), targetAct.getId(), bindingSignal);
     }
 
     @Override
     public Stream<BindingSignal> getReverseBindingSignals(Neuron toNeuron) {
         if(toNeuron.isTemplate()) {
-            return reverseBindingSignals.values().stream()
+            return reverseBindingSignals.stream()
                     .filter(bs -> bs.getActivation().getNeuron().templateNeuronMatches(toNeuron));
         } else {
-            return reverseBindingSignals.subMap(
-                    new DummyActivation(0, toNeuron),
-                    new DummyActivation(Integer.MAX_VALUE, toNeuron)
-            ).values().stream();
+            return reverseBindingSignals.stream(toNeuron.getId());
         }
     }
 
@@ -203,7 +207,7 @@ public class BindingActivation extends ConjunctiveActivation<BindingNeuron> {
     }
 
     private void copyBindingSignals(BindingActivation clonedAct) {
-        getPatternBindingSignals().values().stream()
+        getPatternBindingSignals().stream()
                 .filter(bs -> bs.getState() == INPUT)
                 .forEach(bs ->
                         clonedAct.addBindingSignal(
@@ -231,8 +235,8 @@ public class BindingActivation extends ConjunctiveActivation<BindingNeuron> {
     }
 
     private BindingSignal<?> getPrimaryPatternBindingSignal() {
-        return getPatternBindingSignals().values().stream()
-                .filter(bs -> NOT_SET_AFTER.compare(bs.getOriginActivation().getFired(), fired) < 0)
+        return getPatternBindingSignals().stream()
+                .filter(bs -> compareNotSetAfter(bs.getOriginActivation().getFired(), fired) < 0)
                 .filter(bs -> bs.getState() == SAME || bs.getState() == INPUT)
                 .min(Comparator.comparing(bs -> bs.getState().ordinal()))
                 .orElse(null);
@@ -258,7 +262,7 @@ public class BindingActivation extends ConjunctiveActivation<BindingNeuron> {
         return bpNorm;
     }
 
-    public FieldFunction getExpNet() {
+    public KernelOutput getExpNet() {
         return expNet;
     }
 
@@ -267,7 +271,7 @@ public class BindingActivation extends ConjunctiveActivation<BindingNeuron> {
     }
 
     public boolean checkIfPrimaryInputBNLinkAlreadyExists() {
-        return inputLinks.values().stream()
+        return inputLinks.stream()
                 .anyMatch(l -> l instanceof PrimaryInputLink<?>);
     }
 
@@ -47,7 +47,7 @@ public class CategoryActivation extends DisjunctiveActivation<CategoryNeuron> {
     }
 
     private BindingSignal getPrimaryPatternBindingSignal() {
-        return getPatternBindingSignals().values().stream()
+        return getPatternBindingSignals().stream()
                 .filter(bs -> bs.getState() == State.SAME)
                 .findFirst()
                 .orElse(null);
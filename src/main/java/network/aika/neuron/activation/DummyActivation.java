@@ -45,7 +45,7 @@ public class DummyActivation extends Activation {
     }
 
     @Override
-    public Timestamp getFired() {
+    public long getFired() {
         return MAX;
     }
 
@@ -31,7 +31,7 @@ import java.util.stream.Stream;
  */
 public abstract class Element<E extends Element> implements Comparable<E> {
 
-    public abstract Timestamp getFired();
+    public abstract long getFired();
 
     public abstract Thought getThought();
 
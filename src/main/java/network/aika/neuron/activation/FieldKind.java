@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.neuron.activation;
+
+import network.aika.fields.Field;
+
+/**
+ * The fields of an activation that hold a value of their own, e.g. to configure their tolerances. Fields like
+ * finalValue or isFired are computed from these.
+ *
+ * @author Lukas Molzberger
+ */
+public enum FieldKind {
+    NET,
+    VALUE,
+    IS_FINAL,
+    OWN_INPUT_GRADIENT,
+    BACKPROP_INPUT_GRADIENT,
+    OWN_OUTPUT_GRADIENT,
+    BACKPROP_OUTPUT_GRADIENT;
+
+    Field getField(Activation act) {
+        switch (this) {
+            case NET:
+                return act.getNet();
+            case VALUE:
+                return act.getValue();
+            case IS_FINAL:
+                return act.getIsFinal();
+            case OWN_INPUT_GRADIENT:
+                return act.getOwnInputGradient();
+            case BACKPROP_INPUT_GRADIENT:
+                return act.getBackpropInputGradient();
+            case OWN_OUTPUT_GRADIENT:
+                return act.ownOutputGradient;
+            case BACKPROP_OUTPUT_GRADIENT:
+                return act.backpropOutputGradient;
+            default:
+                return null;
+        }
+    }
+}
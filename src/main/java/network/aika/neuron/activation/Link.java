@@ -21,7 +21,9 @@ import network.aika.Thought;
 import network.aika.fields.ThresholdOperator;
 import network.aika.fields.AbstractBiFunction;
 import network.aika.fields.BiFunction;
+import network.aika.fields.Field;
 import network.aika.fields.FieldOutput;
+import network.aika.metrics.ThoughtMetrics;
 import network.aika.neuron.Range;
 import network.aika.neuron.Synapse;
 import network.aika.sign.Sign;
@@ -35,7 +37,7 @@ import static network.aika.fields.ConstantField.ZERO;
 import static network.aika.fields.Fields.*;
 import static network.aika.fields.ThresholdOperator.Type.ABOVE;
 import static network.aika.neuron.activation.Timestamp.NOT_SET;
-import static network.aika.neuron.activation.Timestamp.NOT_SET_AFTER;
+import static network.aika.neuron.activation.Timestamp.compareNotSetAfter;
 
 /**
  *
@@ -56,10 +58,14 @@ public abstract class Link<S extends Synapse, I extends Activation, O extends Ac
     private AbstractBiFunction weightedInput;
     protected AbstractBiFunction backPropGradient;
 
+    private AbstractBiFunction isFiredWeight;
     private ThresholdOperator onTransparent;
 
     protected boolean isSelfRef;
 
+    private boolean gradientSinksDeferred;
+    private Field deferredBackpropTarget;
+
     public Link(S s, I input, O output, boolean isSelfRef) {
         this.synapse = s;
         this.input = input;
@@ -69,14 +75,15 @@ public abstract class Link<S extends Synapse, I extends Activation, O extends Ac
         init();
 
         if(input != null && output != null) {
+            isFiredWeight = mul("isFired * weight",
+                    synapse.getWeight(),
+                    input.isFired
+            );
             onTransparent = threshold(
                     "onTransparent",
                     0.0,
                     ABOVE,
-                    mul("isFired * weight",
-                            synapse.getWeight(),
-                            input.isFired
-                    )
+                    isFiredWeight
             );
             onTransparent.addEventListener(() ->
                     PropagateBindingSignal.add(this)
@@ -106,17 +113,49 @@ public abstract class Link<S extends Synapse, I extends Activation, O extends Ac
                 output.ownInputGradient
         );
 
-        initBackpropGradient();
+        if(output.isGradientMaterialized()) {
+            initGradientSinks(input.backpropInputGradient);
+        } else {
+            // The sink is bound to the input gradient that exists now, just like in the eager construction.
+            deferredBackpropTarget = input.backpropInputGradient;
+            gradientSinksDeferred = true;
+
+            ThoughtMetrics metrics = getThought().getMetrics();
+            if(metrics != null)
+                metrics.onGradientsDeferred();
+        }
+    }
+
+    /**
+     * Called by the output activation once its gradient fields have been materialized.
+     */
+    void materializeGradients() {
+        if(!gradientSinksDeferred)
+            return;
+
+        Field backpropTarget = deferredBackpropTarget;
+        gradientSinksDeferred = false;
+        deferredBackpropTarget = null;
+
+        ThoughtMetrics metrics = getThought().getMetrics();
+        if(metrics != null)
+            metrics.onGradientsMaterialized();
+
+        initGradientSinks(backpropTarget);
+    }
+
+    private void initGradientSinks(Field backpropTarget) {
+        initBackpropGradient(backpropTarget);
 
         initWeightUpdate();
     }
 
-    protected void initBackpropGradient() {
+    protected void initBackpropGradient(Field backpropTarget) {
         backPropGradient = mul(
                 "oAct.ownOutputGradient * s.weight",
                 output.ownOutputGradient,
                 synapse.getWeight(),
-                input.backpropInputGradient
+                backpropTarget
         );
     }
 
@@ -157,7 +196,7 @@ public abstract class Link<S extends Synapse, I extends Activation, O extends Ac
     }
 
     @Override
-    public Timestamp getFired() {
+    public long getFired() {
         return isCausal() ? input.getFired() : output.getFired();
     }
 
@@ -212,7 +251,7 @@ public abstract class Link<S extends Synapse, I extends Activation, O extends Ac
     }
 
     public static boolean isCausal(Activation iAct, Activation oAct) {
-        return oAct.getFired() == NOT_SET || NOT_SET_AFTER.compare(iAct.getFired(), oAct.getFired()) < 0;
+        return oAct.getFired() == NOT_SET || compareNotSetAfter(iAct.getFired(), oAct.getFired()) < 0;
     }
 
     public void induce() {
@@ -234,7 +273,8 @@ public abstract class Link<S extends Synapse, I extends Activation, O extends Ac
             return;
 
         input.outputLinks.put(
-                new OutputKey(output.getNeuronProvider(), output.getId()),
+                output.getNeuronProvider().getId(),
+                output.getId(),
                 this
         );
     }
@@ -243,16 +283,39 @@ public abstract class Link<S extends Synapse, I extends Activation, O extends Ac
     }
 
     public void linkOutput() {
-        output.inputLinks.put(input != null ? input.getNeuronProvider() : synapse.getPInput(), this);
+        output.inputLinks.put((input != null ? input.getNeuronProvider() : synapse.getPInput()).getId(), this);
     }
 
     public void unlinkInput() {
-        OutputKey ok = output.getOutputKey();
-        input.outputLinks.remove(ok, this);
+        if(input == null)
+            return;
+
+        input.outputLinks.remove(output.getNeuronProvider().getId(), output.getId(), this);
     }
 
     public void unlinkOutput() {
-        output.inputLinks.remove(input.getNeuronProvider(), this);
+        output.inputLinks.remove((input != null ? input.getNeuronProvider() : synapse.getPInput()).getId(), this);
+    }
+
+    /**
+     * Removes the function nodes of this link from the field graph, in particular from the weight fields of the
+     * synapse, which would otherwise keep them reachable from the model. The current values of the connected
+     * activation fields are left unchanged.
+     */
+    public void disconnect() {
+        FieldOutput[] fields = new FieldOutput[] {
+                isFiredWeight,
+                onTransparent,
+                weightedInput,
+                igGradient,
+                backPropGradient
+        };
+
+        for(FieldOutput f: fields) {
+            if(f == null)
+                continue;
+            f.disconnect();
+        }
     }
 
     public boolean isNegative() {
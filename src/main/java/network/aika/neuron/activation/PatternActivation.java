@@ -45,7 +45,7 @@ public class PatternActivation extends ConjunctiveActivation<PatternNeuron> {
         super.initFields();
 
         isFinal.addEventListener(() ->
-                outputLinks.values().forEach(l ->
+                outputLinks.forEach(l ->
                         l.setFinalMode()
                 )
         );
@@ -80,7 +80,7 @@ public class PatternActivation extends ConjunctiveActivation<PatternNeuron> {
     }
 
     public boolean isSelfRef(Activation iAct) {
-        return reverseBindingSignals.containsKey(iAct);
+        return reverseBindingSignals.containsKey(iAct.getNeuronProvider().getId(), iAct.getId());
     }
 
     @Override
@@ -17,6 +17,7 @@
 package network.aika.neuron.activation;
 
 import network.aika.fields.AbstractBiFunction;
+import network.aika.fields.Field;
 import network.aika.neuron.conjunctive.PositiveFeedbackSynapse;
 
 import static network.aika.fields.Fields.mul;
@@ -75,7 +76,7 @@ public class PositiveFeedbackLink<IA extends Activation> extends BindingNeuronLi
         }
     }
 
-    protected void initBackpropGradient() {
+    protected void initBackpropGradient(Field backpropTarget) {
         if(isCausal()) {
             super.initWeightUpdate();
         } else {
@@ -83,11 +84,21 @@ public class PositiveFeedbackLink<IA extends Activation> extends BindingNeuronLi
                     "oAct.ownOutputGradient * s.feedbackWeight",
                     output.ownOutputGradient,
                     synapse.getFeedbackWeight(),
-                    input.backpropInputGradient
+                    backpropTarget
             );
         }
     }
 
+    @Override
+    public void disconnect() {
+        super.disconnect();
+
+        if(feedbackWeightInput != null)
+            feedbackWeightInput.disconnect();
+        if(feedbackBiasInput != null)
+            feedbackBiasInput.disconnect();
+    }
+
     public AbstractBiFunction getFeedbackWeightInput() {
         return feedbackWeightInput;
     }
@@ -1,43 +1,67 @@
 package network.aika.neuron.activation;
 
-import java.util.Comparator;
-
+/**
+ * Timestamps are plain longs taken from the counter of a thought. This class holds the sentinel values and helper
+ * methods for them and provides a boxed view, e.g. for the debugger.
+ */
 public class Timestamp implements Comparable<Timestamp> {
 
-    public static Timestamp NOT_SET = new Timestamp(Long.MIN_VALUE);
-
-    public static Timestamp MIN = new Timestamp(0);
-    public static Timestamp MAX = new Timestamp(Long.MAX_VALUE);
+    public static final long NOT_SET = Long.MIN_VALUE;
 
-    public static Comparator<Timestamp> NOT_SET_AFTER = Comparator
-            .<Timestamp>comparingInt(ts -> ts == NOT_SET ? 1 : 0)
-            .thenComparingLong(Timestamp::getTimestamp);
+    public static final long MIN = 0;
+    public static final long MAX = Long.MAX_VALUE;
 
-    private long timestamp;
+    private final long timestamp;
 
-    public Timestamp(long ts) {
+    private Timestamp(long ts) {
         this.timestamp = ts;
     }
 
-    public long getTimestamp() {
-        return timestamp;
+    public static Timestamp of(long ts) {
+        return new Timestamp(ts);
     }
 
-    public String toString() {
-        if(this == NOT_SET)
+    /**
+     * Orders the timestamps naturally, but places NOT_SET after all other timestamps.
+     */
+    public static int compareNotSetAfter(long ts1, long ts2) {
+        int r = Integer.compare(ts1 == NOT_SET ? 1 : 0, ts2 == NOT_SET ? 1 : 0);
+        return r != 0 ? r : Long.compare(ts1, ts2);
+    }
+
+    public static String toString(long ts) {
+        if(ts == NOT_SET)
             return "NOT_SET";
 
-        if(this == MIN)
+        if(ts == MIN)
             return "MIN";
 
-        if(this == MAX)
+        if(ts == MAX)
             return "MAX";
 
-        return "" + timestamp;
+        return "" + ts;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String toString() {
+        return toString(timestamp);
     }
 
     @Override
     public int compareTo(Timestamp ts) {
         return Long.compare(timestamp, ts.timestamp);
     }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Timestamp && ((Timestamp) o).timestamp == timestamp;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(timestamp);
+    }
 }
@@ -80,8 +80,6 @@ public class RelatedInputSynapse extends BindingNeuronSynapse<RelatedInputSynaps
             return false;
 
         Activation originAct = sameSB.getOriginActivation();
-        return originAct.getReverseBindingSignals(primaryInputSyn.getInput())
-                .findAny()
-                .isPresent();
+        return originAct.hasReverseBindingSignals(primaryInputSyn.getInput());
     }
 }
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.steps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A step queue with one bucket per {@link Phase}. Within a bucket the steps are kept in a binary heap on primitive
+ * keys, so that no comparator chain and no boxed timestamps have to be touched while the queue is reorganized.
+ *
+ * The remaining part of the {@link QueueKey#COMPARATOR} order is packed into two longs: the major key is the fired
+ * timestamp, the minor key contains the linking order in its upper bits and the step timestamp in the remaining
+ * ones. Both keys preserve the natural order of the original components, so the steps are handed out in exactly the
+ * same order as by the {@link TreeStepQueue}. Every step remembers its position within the heap, so that it can be
+ * removed in logarithmic time.
+ *
+ * @author Lukas Molzberger
+ */
+public class BucketStepQueue implements StepQueue {
+
+    private static final int LINKING_ORDER_SHIFT = 61;
+    private static final long MAX_TIMESTAMP = (1L << LINKING_ORDER_SHIFT) - 1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Bucket[] buckets = new Bucket[Phase.values().length];
+
+    public BucketStepQueue() {
+        for(int i = 0; i < buckets.length; i++)
+            buckets[i] = new Bucket();
+    }
+
+    public static long getMajorKey(QueueKey k) {
+        return k.getFired();
+    }
+
+    public static long getMinorKey(QueueKey k) {
+        long ts = k.getTimestamp();
+        assert ts >= 0 && ts <= MAX_TIMESTAMP;
+
+        return ((long) k.getLinkingOrder().ordinal() << LINKING_ORDER_SHIFT) | ts;
+    }
+
+    @Override
+    public void add(Step s) {
+        buckets[s.getPhase().ordinal()]
+                .add(getMajorKey(s), getMinorKey(s), s);
+    }
+
+    @Override
+    public boolean remove(Step s) {
+        return buckets[s.getPhase().ordinal()]
+                .remove(s);
+    }
+
+    @Override
+    public Step peek() {
+        Bucket b = getFirstBucket();
+        return b != null ? b.steps[0] : null;
+    }
+
+    @Override
+    public Step poll() {
+        Bucket b = getFirstBucket();
+        return b != null ? b.removeAt(0) : null;
+    }
+
+    private Bucket getFirstBucket() {
+        for(Bucket b: buckets) {
+            if(b.size > 0)
+                return b;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getFirstBucket() == null;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for(Bucket b: buckets)
+            size += b.size;
+        return size;
+    }
+
+    @Override
+    public Collection<Step> getSteps() {
+        List<Step> result = new ArrayList<>(size());
+        for(Bucket b: buckets) {
+            List<Step> steps = Arrays.asList(Arrays.copyOf(b.steps, b.size));
+            steps.sort(QueueKey.COMPARATOR);
+            result.addAll(steps);
+        }
+        return result;
+    }
+
+    private static class Bucket {
+        long[] major = new long[INITIAL_CAPACITY];
+        long[] minor = new long[INITIAL_CAPACITY];
+        Step[] steps = new Step[INITIAL_CAPACITY];
+        int size;
+
+        void add(long maj, long min, Step s) {
+            if(size == steps.length)
+                grow();
+
+            int i = size++;
+            major[i] = maj;
+            minor[i] = min;
+            steps[i] = s;
+            s.queueIndex = i;
+            siftUp(i);
+        }
+
+        boolean remove(Step s) {
+            int i = s.queueIndex;
+            if(i < 0 || i >= size || steps[i] != s)
+                return false;
+
+            removeAt(i);
+            return true;
+        }
+
+        Step removeAt(int i) {
+            Step s = steps[i];
+            s.queueIndex = -1;
+            int last = --size;
+            if(i != last) {
+                move(last, i);
+                steps[last] = null;
+                siftDown(i);
+                siftUp(i);
+            } else {
+                steps[last] = null;
+            }
+            return s;
+        }
+
+        private void siftUp(int i) {
+            while(i > 0) {
+                int parent = (i - 1) >>> 1;
+                if(!less(i, parent))
+                    return;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while(true) {
+                int child = (i << 1) + 1;
+                if(child >= size)
+                    return;
+                if(child + 1 < size && less(child + 1, child))
+                    child++;
+                if(!less(child, i))
+                    return;
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private boolean less(int i, int j) {
+            return major[i] < major[j] || (major[i] == major[j] && minor[i] < minor[j]);
+        }
+
+        private void move(int from, int to) {
+            major[to] = major[from];
+            minor[to] = minor[from];
+            steps[to] = steps[from];
+            steps[to].queueIndex = to;
+        }
+
+        private void swap(int i, int j) {
+            long maj = major[i];
+            long min = minor[i];
+            Step s = steps[i];
+            move(j, i);
+            major[j] = maj;
+            minor[j] = min;
+            steps[j] = s;
+            s.queueIndex = j;
+        }
+
+        private void grow() {
+            int capacity = steps.length << 1;
+            major = Arrays.copyOf(major, capacity);
+            minor = Arrays.copyOf(minor, capacity);
+            steps = Arrays.copyOf(steps, capacity);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.steps;
+
+import java.util.Arrays;
+
+/**
+ * Identifies equivalent pending steps. Two steps with equal keys would perform the same work, so only the first one
+ * needs to be queued. The subject of the step, an activation, link or neuron, is compared by identity, all further
+ * parts by equality.
+ *
+ * @author Lukas Molzberger
+ */
+public final class CoalescingKey {
+
+    private final Class<?> type;
+    private final Object subject;
+    private final Object[] parts;
+    private final int hash;
+
+    public CoalescingKey(Class<?> type, Object subject, Object... parts) {
+        this.type = type;
+        this.subject = subject;
+        this.parts = parts;
+        this.hash = (31 * type.hashCode() + System.identityHashCode(subject)) * 31 + Arrays.hashCode(parts);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CoalescingKey)) return false;
+        CoalescingKey k = (CoalescingKey) o;
+        return hash == k.hash &&
+                type == k.type &&
+                subject == k.subject &&
+                Arrays.equals(parts, k.parts);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    public String toString() {
+        return type.getSimpleName() + " " + subject + " " + Arrays.toString(parts);
+    }
+}
@@ -38,6 +38,11 @@ public class FieldStep<E extends Element> extends Step<E> {
         field.process();
     }
 
+    @Override
+    public void cancel() {
+        field.cancel();
+    }
+
     @Override
     public Phase getPhase() {
         return Phase.PROCESSING;
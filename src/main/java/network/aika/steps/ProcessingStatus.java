@@ -14,31 +14,23 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package network.aika.neuron.activation;
-
-import network.aika.neuron.NeuronProvider;
-
-import java.util.Comparator;
+package network.aika.steps;
 
 /**
+ * The result of a bounded call to {@link network.aika.Thought#process(Phase, long, long)}.
  *
  * @author Lukas Molzberger
  */
-public class OutputKey {
-
-    public static final Comparator<OutputKey> COMPARATOR = Comparator
-            .<OutputKey, NeuronProvider>comparing(ok -> ok.n)
-            .thenComparingInt(ok -> ok.actId);
-
-    private final NeuronProvider n;
-    private final Integer actId;
-
-    public OutputKey(NeuronProvider n, Integer actId) {
-        this.n = n;
-        this.actId = actId;
-    }
+public enum ProcessingStatus {
+    COMPLETED,
+    STEP_LIMIT_REACHED,
+    DEADLINE_REACHED,
+    ABANDONED;
 
-    public String toString() {
-        return "[" + n.getId() + "]:" + actId;
+    /**
+     * @return true if there are pending steps left, which will be processed by the next call.
+     */
+    public boolean isResumable() {
+        return this == STEP_LIMIT_REACHED || this == DEADLINE_REACHED;
     }
 }
@@ -16,12 +16,8 @@
  */
 package network.aika.steps;
 
-import network.aika.neuron.activation.Timestamp;
-
 import java.util.Comparator;
 
-import static network.aika.neuron.activation.Timestamp.NOT_SET;
-
 /**
  * @author Lukas Molzberger
  */
@@ -29,17 +25,17 @@ public interface QueueKey {
 
     Comparator<QueueKey> COMPARATOR = Comparator
             .<QueueKey>comparingInt(k -> k.getPhase().ordinal())
-            .thenComparing(k -> k.getFired())
+            .thenComparingLong(k -> k.getFired())
             .thenComparing(k -> k.getLinkingOrder())
-            .thenComparing(k -> k.getTimestamp());
+            .thenComparingLong(k -> k.getTimestamp());
 
     Phase getPhase();
 
-    Timestamp getFired();
+    long getFired();
 
     LinkingOrder getLinkingOrder();
 
     String getStepName();
 
-    Timestamp getTimestamp();
+    long getTimestamp();
 }
@@ -18,7 +18,6 @@ package network.aika.steps;
 
 import network.aika.Thought;
 import network.aika.neuron.activation.Element;
-import network.aika.neuron.activation.Timestamp;
 
 
 /**
@@ -28,8 +27,14 @@ public abstract class Step<E extends Element> implements QueueKey, Cloneable {
 
     private E element;
 
-    protected Timestamp fired;
-    private Timestamp timestamp;
+    protected long fired;
+    private long timestamp;
+    private CoalescingKey coalescingKey;
+
+    /**
+     * Position of this step within the heap of a {@link BucketStepQueue} or -1, if it is not queued there.
+     */
+    int queueIndex = -1;
 
     public Step(E element) {
         this.element = element;
@@ -43,6 +48,7 @@ public abstract class Step<E extends Element> implements QueueKey, Cloneable {
         } catch (CloneNotSupportedException e) {
         }
         newStep.element = newElement;
+        newStep.queueIndex = -1;
         return newStep;
     }
 
@@ -54,6 +60,12 @@ public abstract class Step<E extends Element> implements QueueKey, Cloneable {
 
     public abstract Phase getPhase();
 
+    /**
+     * Called if the step is removed from the queue without having been processed.
+     */
+    public void cancel() {
+    }
+
     public static void add(Step s) {
         Thought t = s.getElement().getThought();
         if(t == null)
@@ -62,7 +74,22 @@ public abstract class Step<E extends Element> implements QueueKey, Cloneable {
         t.addStep(s);
     }
 
-    public Timestamp getFired() {
+    /**
+     * Equivalent steps share the same coalescing key. While one of them is pending, the others are not queued.
+     *
+     * @return the key or null, if this step may not be merged with other steps.
+     */
+    protected CoalescingKey createCoalescingKey() {
+        return null;
+    }
+
+    public CoalescingKey getCoalescingKey() {
+        if(coalescingKey == null)
+            coalescingKey = createCoalescingKey();
+        return coalescingKey;
+    }
+
+    public long getFired() {
         return fired;
     }
 
@@ -71,11 +98,11 @@ public abstract class Step<E extends Element> implements QueueKey, Cloneable {
         return LinkingOrder.NOT_SET;
     }
 
-    public Timestamp getTimestamp() {
+    public long getTimestamp() {
         return timestamp;
     }
 
-    public void setTimestamp(Timestamp timestamp) {
+    public void setTimestamp(long timestamp) {
         this.timestamp = timestamp;
     }
 
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.steps;
+
+import java.util.Collection;
+
+/**
+ * The queue of pending steps of a thought. Implementations have to hand out the steps in the order defined by
+ * {@link QueueKey#COMPARATOR}.
+ *
+ * @author Lukas Molzberger
+ */
+public interface StepQueue {
+
+    void add(Step s);
+
+    boolean remove(Step s);
+
+    Step peek();
+
+    Step poll();
+
+    boolean isEmpty();
+
+    int size();
+
+    /**
+     * @return the pending steps in processing order.
+     */
+    Collection<Step> getSteps();
+}
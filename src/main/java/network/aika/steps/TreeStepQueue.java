@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.steps;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Keeps the pending steps in a tree map ordered by the {@link QueueKey#COMPARATOR}.
+ *
+ * @author Lukas Molzberger
+ */
+public class TreeStepQueue implements StepQueue {
+
+    private final NavigableMap<QueueKey, Step> queue = new TreeMap<>(QueueKey.COMPARATOR);
+
+    @Override
+    public void add(Step s) {
+        queue.put(s, s);
+    }
+
+    @Override
+    public boolean remove(Step s) {
+        return queue.remove(s) != null;
+    }
+
+    @Override
+    public Step peek() {
+        Map.Entry<QueueKey, Step> e = queue.firstEntry();
+        return e != null ? e.getValue() : null;
+    }
+
+    @Override
+    public Step poll() {
+        Map.Entry<QueueKey, Step> e = queue.pollFirstEntry();
+        return e != null ? e.getValue() : null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public Collection<Step> getSteps() {
+        return queue.values();
+    }
+}
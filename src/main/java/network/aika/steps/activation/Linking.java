@@ -20,15 +20,16 @@ import network.aika.direction.Direction;
 import network.aika.neuron.Neuron;
 import network.aika.neuron.Synapse;
 import network.aika.neuron.activation.Activation;
-import network.aika.neuron.activation.Timestamp;
 import network.aika.neuron.bindingsignal.BindingSignal;
 import network.aika.neuron.conjunctive.PatternSynapse;
 import network.aika.neuron.conjunctive.PositiveFeedbackSynapse;
+import network.aika.steps.CoalescingKey;
 import network.aika.steps.LinkingOrder;
 import network.aika.steps.Phase;
 import network.aika.steps.Step;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -52,7 +53,7 @@ import static network.aika.steps.LinkingOrder.PRE_FIRED;
  */
 public class Linking extends Step<Activation> {
 
-    private static void addInternal(Activation act, BindingSignal bindingSignal, Direction dir, LinkingOrder linkingOrder, Timestamp fired, String linkingType, Predicate<Synapse> filter) {
+    private static void addInternal(Activation act, BindingSignal bindingSignal, Direction dir, LinkingOrder linkingOrder, long fired, String linkingType, Predicate<Synapse> filter) {
         if (bindingSignal.isOrigin())
             return;
 
@@ -82,7 +83,7 @@ public class Linking extends Step<Activation> {
     private List<Synapse> targetSynapses;
 
 
-    private Linking(Activation act, BindingSignal<?> bindingSignal, Direction dir, LinkingOrder linkingOrder, Timestamp fired, String linkingType, Predicate<Synapse> filter) {
+    private Linking(Activation act, BindingSignal<?> bindingSignal, Direction dir, LinkingOrder linkingOrder, long fired, String linkingType, Predicate<Synapse> filter) {
         super(act);
 
         this.linkingOrder = linkingOrder;
@@ -106,6 +107,19 @@ public class Linking extends Step<Activation> {
         return targetSynapses != null && !targetSynapses.isEmpty();
     }
 
+    @Override
+    protected CoalescingKey createCoalescingKey() {
+        return new CoalescingKey(
+                Linking.class,
+                getElement(),
+                bindingSignal,
+                linkingOrder,
+                direction,
+                linkingType,
+                fired
+        );
+    }
+
     @Override
     public LinkingOrder getLinkingOrder() {
         return linkingOrder;
@@ -126,25 +140,19 @@ public class Linking extends Step<Activation> {
     private void link(Synapse ts) {
         Neuron toNeuron = direction.getNeuron(ts);
 
-        getRelatedBindingSignal(ts, bindingSignal, toNeuron)
-                .filter(toBS -> bindingSignal != toBS)
-                .forEach(toBS ->
-                        link(ts, bindingSignal, toBS)
-                );
+        forEachRelatedBindingSignal(ts, bindingSignal, toNeuron, toBS -> {
+            if(bindingSignal != toBS)
+                link(ts, bindingSignal, toBS);
+        });
     }
 
-    private Stream<BindingSignal<?>> getRelatedBindingSignal(Synapse targetSynapse, BindingSignal fromBindingSignal, Neuron toNeuron) {
+    private void forEachRelatedBindingSignal(Synapse targetSynapse, BindingSignal fromBindingSignal, Neuron toNeuron, Consumer<BindingSignal<?>> visitor) {
         Activation originAct = fromBindingSignal.getOriginActivation();
-        Stream<BindingSignal<?>> relatedBindingSignals = originAct.getReverseBindingSignals(toNeuron);
-
-        if(targetSynapse.allowLooseLinking()) {
-            relatedBindingSignals = Stream.concat(
-                    relatedBindingSignals,
-                    originAct.getThought().getLooselyRelatedBindingSignals(fromBindingSignal, targetSynapse.getLooseLinkingRange(), toNeuron)
-            );
-        }
+        originAct.forEachReverseBindingSignal(toNeuron, visitor);
 
-        return relatedBindingSignals;
+        if(targetSynapse.allowLooseLinking())
+            originAct.getThought()
+                    .forEachLooselyRelatedBindingSignal(fromBindingSignal, targetSynapse.getLooseLinkingRange(), toNeuron, visitor);
     }
 
     private void link(Synapse targetSynapse, BindingSignal fromBS, BindingSignal toBS) {
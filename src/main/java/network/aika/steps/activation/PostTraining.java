@@ -16,9 +16,11 @@
  */
 package network.aika.steps.activation;
 
+import network.aika.Thought;
 import network.aika.neuron.Neuron;
 import network.aika.neuron.activation.DummyActivation;
 import network.aika.neuron.conjunctive.ConjunctiveNeuron;
+import network.aika.steps.CoalescingKey;
 import network.aika.steps.Phase;
 import network.aika.steps.Step;
 
@@ -44,6 +46,10 @@ public class PostTraining extends Step<DummyActivation> {
         if(cn.getUpdateAllowPropagateIsQueued())
             return;
 
+        Thought t = n.getModel().getCurrentThought();
+        if(t != null && t.coalesce(getCoalescingKey(n)))
+            return;
+
         Step.add(new PostTraining(new DummyActivation(n)));
     }
 
@@ -51,6 +57,15 @@ public class PostTraining extends Step<DummyActivation> {
         super(act);
     }
 
+    private static CoalescingKey getCoalescingKey(Neuron n) {
+        return new CoalescingKey(PostTraining.class, n);
+    }
+
+    @Override
+    protected CoalescingKey createCoalescingKey() {
+        return getCoalescingKey(getElement().getNeuron());
+    }
+
     @Override
     public Phase getPhase() {
         return Phase.PROCESSING;
@@ -20,6 +20,7 @@ import network.aika.Thought;
 import network.aika.neuron.Neuron;
 import network.aika.neuron.activation.Activation;
 import network.aika.neuron.activation.DummyActivation;
+import network.aika.steps.CoalescingKey;
 import network.aika.steps.Phase;
 import network.aika.steps.Step;
 
@@ -31,9 +32,17 @@ import network.aika.steps.Step;
 public class Save extends Step<DummyActivation> {
 
     public static void add(Neuron n) {
+        // A neuron that is being deserialized has no provider, and thus no id, yet.
+        if(n.getProvider() == null)
+            return;
+
         if(n.isTemplate())
             return;
 
+        Thought t = n.getModel().getCurrentThought();
+        if(t != null && t.coalesce(getCoalescingKey(n)))
+            return;
+
         Step.add(new Save(new DummyActivation(n)));
     }
 
@@ -41,6 +50,15 @@ public class Save extends Step<DummyActivation> {
         super(act);
     }
 
+    private static CoalescingKey getCoalescingKey(Neuron n) {
+        return new CoalescingKey(Save.class, n);
+    }
+
+    @Override
+    protected CoalescingKey createCoalescingKey() {
+        return getCoalescingKey(getElement().getNeuron());
+    }
+
     @Override
     public Phase getPhase() {
         return Phase.POST_PROCESSING;
@@ -19,6 +19,7 @@ package network.aika.steps.link;
 import network.aika.neuron.activation.Activation;
 import network.aika.neuron.bindingsignal.BindingSignal;
 import network.aika.neuron.activation.Link;
+import network.aika.steps.CoalescingKey;
 import network.aika.steps.Phase;
 import network.aika.steps.Step;
 
@@ -63,6 +64,15 @@ public class PropagateBindingSignal extends Step<Link> {
         this.inputBindingSignals = inputBindingSignals;
     }
 
+    @Override
+    protected CoalescingKey createCoalescingKey() {
+        return new CoalescingKey(
+                PropagateBindingSignal.class,
+                getElement(),
+                inputBindingSignals.toArray()
+        );
+    }
+
     @Override
     public Phase getPhase() {
         return Phase.PROCESSING;
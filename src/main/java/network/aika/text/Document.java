@@ -16,18 +16,24 @@
  */
 package network.aika.text;
 
+import network.aika.Config;
 import network.aika.Thought;
+import network.aika.fields.FieldArena;
 import network.aika.neuron.Neuron;
 import network.aika.neuron.NeuronProvider;
 import network.aika.neuron.Range;
+import network.aika.neuron.Synapse;
 import network.aika.neuron.activation.Activation;
 import network.aika.neuron.bindingsignal.BindingSignal;
 import network.aika.neuron.conjunctive.PatternNeuron;
+import network.aika.utils.LongHashMap;
 
-import java.util.NavigableMap;
-import java.util.TreeMap;
+import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
+import static network.aika.direction.Direction.INPUT;
+import static network.aika.direction.Direction.OUTPUT;
 import static network.aika.steps.Phase.PROCESSING;
 
 
@@ -35,15 +41,41 @@ import static network.aika.steps.Phase.PROCESSING;
  * The {@code Document} class represents a single document which may be either used for processing a text or as
  * training input. A document consists of the raw text, the interpretations and the activations.
  *
+ * In the streaming mode, see {@link #setStreamingWindow(int, WindowUnit)}, the document only keeps the activations
+ * and the text of a sliding window behind the most recent token. Activations that fall behind this window are
+ * finalized, handed to the {@link network.aika.callbacks.EventListener#onActivationEvictionEvent(Activation)}
+ * callback and detached, so that the memory of the document stays bounded regardless of the length of the input.
+ *
  * @author Lukas Molzberger
  */
 public class Document extends Thought<TextModel> {
 
     private final StringBuilder content;
+    private long contentOffset;
 
     private NavigableMap<Long, BindingSignal> beginBSIndex = new TreeMap<>();
     private NavigableMap<Long, BindingSignal> endBSIndex = new TreeMap<>();
 
+    private int nextTokenBegin;
+    private TokenActivation lastToken;
+
+    private WindowUnit windowUnit;
+    private int windowSize;
+    private final ArrayDeque<TokenActivation> windowTokens = new ArrayDeque<>();
+
+    // The activations of a streaming document that have not been evicted yet. The ranges of new activations are only
+    // known once they have been processed, so they are sorted in at the next slide of the window. Activations with a
+    // range are then ordered by its end and by its begin, the others are kept in the order of their creation.
+    private final ArrayDeque<Activation> newActivations = new ArrayDeque<>();
+    private final PriorityQueue<PendingEviction> pendingByEnd = new PriorityQueue<>();
+    private final PriorityQueue<PendingEviction> pendingByBegin = new PriorityQueue<>();
+    private final List<Activation> pendingWithoutRange = new ArrayList<>();
+    private final LongHashMap<Neuron> scannedNeurons = new LongHashMap<>();
+    private int looseLinkingReach;
+    private long evictionBoundary;
+    private long evictedActivations;
+    private long countedLength;
+
     public Document(TextModel model, String content) {
         super(model);
         this.content = new StringBuilder();
@@ -52,6 +84,98 @@ public class Document extends Thought<TextModel> {
         }
     }
 
+    /**
+     * Enables the streaming mode. Once an activation lies entirely behind the window, i.e. before the last
+     * {@code size} characters or tokens, and can no longer be reached by loose linking, it is finalized, passed to
+     * the eviction callback of the event listeners and detached from the document. The text behind the window is
+     * dropped as well.
+     *
+     * The streaming mode is meant for inference. The field arena and the value snapshot keep their state until
+     * the document is closed and can therefore not be combined with the streaming mode.
+     */
+    public void setStreamingWindow(int size, WindowUnit unit) {
+        if(size <= 0)
+            throw new IllegalArgumentException("The window size must be positive: " + size);
+
+        checkStreamingSupported(getConfig());
+
+        windowSize = size;
+        windowUnit = unit;
+        getActivations().forEach(act ->
+                scanLooseLinkingRange(act.getNeuron())
+        );
+    }
+
+    @Override
+    public void setConfig(Config config) {
+        if(isStreaming())
+            checkStreamingSupported(config);
+
+        super.setConfig(config);
+    }
+
+    private static void checkStreamingSupported(Config config) {
+        if(config == null)
+            return;
+
+        if(config.isArenaEnabled())
+            throw new IllegalStateException("The field arena cannot be used in the streaming mode.");
+    }
+
+    public boolean isStreaming() {
+        return windowUnit != null;
+    }
+
+    public WindowUnit getWindowUnit() {
+        return windowUnit;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * @return the number of activations that have been detached so far in the streaming mode.
+     */
+    public long getEvictedActivations() {
+        return evictedActivations;
+    }
+
+    @Override
+    public void register(Activation act) {
+        super.register(act);
+
+        if(isStreaming()) {
+            scanLooseLinkingRange(act.getNeuron());
+            newActivations.addLast(act);
+        }
+    }
+
+    /**
+     * Loose links may reach up to the loose linking range of a synapse behind an activation of the window. The
+     * synapses of every neuron that is activated in this document are therefore inspected once.
+     */
+    private void scanLooseLinkingRange(Neuron<?, ?> n) {
+        if(scannedNeurons.put(n.getId(), n) != null)
+            return;
+
+        boolean template = getConfig() != null && getConfig().isTemplatesEnabled();
+        scanLooseLinkingRange(n.getTargetSynapses(INPUT, false));
+        scanLooseLinkingRange(n.getTargetSynapses(OUTPUT, false));
+        if(template) {
+            scanLooseLinkingRange(n.getTargetSynapses(INPUT, true));
+            scanLooseLinkingRange(n.getTargetSynapses(OUTPUT, true));
+        }
+    }
+
+    private void scanLooseLinkingRange(Stream<? extends Synapse> synapses) {
+        synapses
+                .filter(Synapse::allowLooseLinking)
+                .forEach(s ->
+                        looseLinkingReach = Math.max(looseLinkingReach, s.getLooseLinkingRange())
+                );
+    }
+
     @Override
     public void registerBindingSignalSource(Activation act, BindingSignal bs) {
         Range r = bs.getOriginActivation().getRange();
@@ -73,28 +197,50 @@ public class Document extends Thought<TextModel> {
                 );
     }
 
+    @Override
+    public void forEachLooselyRelatedBindingSignal(BindingSignal<?> fromBindingSignal, Integer looseLinkingRange, Neuron toNeuron, Consumer<? super BindingSignal> visitor) {
+        Range r = fromBindingSignal.getOriginActivation().getRange();
+
+        for(BindingSignal bs: beginBSIndex.subMap(r.getEnd(), r.getEnd() + looseLinkingRange).values())
+            bs.getOriginActivation().forEachReverseBindingSignal(toNeuron, visitor);
+
+        for(BindingSignal bs: endBSIndex.subMap(r.getBegin() - looseLinkingRange, r.getBegin()).values())
+            bs.getOriginActivation().forEachReverseBindingSignal(toNeuron, visitor);
+    }
+
     public void append(String txt) {
         content.append(txt);
     }
 
     public char charAt(int i) {
-        return content.charAt(i);
+        return content.charAt((int) (i - contentOffset));
     }
 
+    /**
+     * @return the text of this document. In the streaming mode only the text from {@link #getContentOffset()} on is
+     * still available.
+     */
     public String getContent() {
         return content.toString();
     }
 
+    public long getContentOffset() {
+        return contentOffset;
+    }
+
     public int length() {
-        return content.length();
+        return (int) (contentOffset + content.length());
     }
 
     public String getTextSegment(Range range) {
         if(range == null)
             return "";
 
-        Range r = range.limit(new Range(0, length()));
-        return content.substring((int) r.getBegin(), (int) r.getEnd());
+        Range r = range.limit(new Range(contentOffset, length()));
+        if(r.getBegin() >= r.getEnd())
+            return "";
+
+        return content.substring((int) (r.getBegin() - contentOffset), (int) (r.getEnd() - contentOffset));
     }
 
     public static String getText(Activation<?> act) {
@@ -110,27 +256,205 @@ public class Document extends Thought<TextModel> {
     }
 
     public TokenActivation addToken(PatternNeuron n, int begin, int end) {
-        TokenActivation act = new TokenActivation(createActivationId(), begin, end, this, n);
+        FieldArena previousArena = makeCurrent();
+        try {
+            TokenActivation act = new TokenActivation(createActivationId(), begin, end, this, n);
 
-        act.init(null, null);
+            act.init(null, null);
 
-        return act;
+            if(isStreaming())
+                windowTokens.addLast(act);
+
+            return act;
+        } finally {
+            FieldArena.activate(previousArena);
+        }
     }
 
+    /**
+     * Processes the given tokens, which are expected to be separated by a single character. In the streaming mode,
+     * subsequent calls continue behind the last token of the previous call, so that a long input can be fed in chunks.
+     * Otherwise, each call starts again at the beginning of the document.
+     */
     public void processTokens(Iterable<String> tokens) {
-        int i = 0;
-        TokenActivation lastToken = null;
+        startTokens();
         for(String t: tokens) {
-            int j = i + t.length();
-            TokenActivation currentToken = addToken(t, i, j);
-            TokenActivation.addRelation(lastToken, currentToken);
+            addNextToken(t);
             process(PROCESSING);
 
-            lastToken = currentToken;
-            i = j + 1;
+            slideWindow();
+        }
+
+        if(isStreaming()) {
+            model.addToN(length() - (int) countedLength);
+            countedLength = length();
+        } else {
+            updateModel();
         }
+    }
 
-        updateModel();
+    /**
+     * Adds the given tokens like {@link #processTokens(Iterable)}, but leaves the resulting steps in the queue.
+     */
+    public void addTokens(Iterable<String> tokens) {
+        startTokens();
+        for(String t: tokens)
+            addNextToken(t);
+    }
+
+    private void startTokens() {
+        if(isStreaming())
+            return;
+
+        lastToken = null;
+        nextTokenBegin = 0;
+    }
+
+    private void addNextToken(String t) {
+        int begin = nextTokenBegin;
+        int end = begin + t.length();
+        TokenActivation currentToken = addToken(t, begin, end);
+        TokenActivation.addRelation(lastToken, currentToken);
+
+        lastToken = currentToken;
+        nextTokenBegin = end + 1;
+    }
+
+    /**
+     * Moves the window of a streaming document behind the most recent token and detaches the activations that have
+     * fallen behind it. This is done automatically by {@link #processTokens(Iterable)}, but needs to be called
+     * explicitly if the tokens are added individually. Nothing happens while steps are still pending.
+     */
+    public void slideWindow() {
+        if(!isStreaming() || lastToken == null || hasPendingSteps(PROCESSING))
+            return;
+
+        long boundary = Math.min(
+                getWindowBegin() - looseLinkingReach,
+                lastToken.getRange().getBegin()
+        );
+        if(boundary <= evictionBoundary)
+            return;
+        evictionBoundary = boundary;
+
+        while(!windowTokens.isEmpty() && windowTokens.peekFirst().getRange().getEnd() <= boundary)
+            windowTokens.pollFirst();
+
+        // Activations without a range are evicted once all tokens up to their creation have been evicted.
+        int firstRetainedId = windowTokens.isEmpty() ? lastToken.getId() : windowTokens.peekFirst().getId();
+
+        sortInNewActivations();
+
+        List<Activation> evicted = new ArrayList<>();
+        int retained = 0;
+        for(Activation act: pendingWithoutRange) {
+            if(!isRetained(act))
+                continue;
+
+            if(act.getRange() != null)
+                sortIn(act);
+            else if(act.getId() < firstRetainedId)
+                evicted.add(act);
+            else
+                pendingWithoutRange.set(retained++, act);
+        }
+        pendingWithoutRange.subList(retained, pendingWithoutRange.size()).clear();
+
+        while(!pendingByEnd.isEmpty() && pendingByEnd.peek().position <= boundary) {
+            Activation act = pendingByEnd.poll().act;
+            if(isRetained(act))
+                evicted.add(act);
+        }
+
+        if(!evicted.isEmpty()) {
+            // The activations are evicted in the order of their creation, like in a full scan of the activations.
+            evicted.sort(Comparator.comparingInt(Activation::getId));
+            evict(evicted);
+            sortInNewActivations();
+        }
+
+        // The text of the retained activations has to stay available, even if they begin behind the boundary.
+        while(!pendingByBegin.isEmpty() && !isRetained(pendingByBegin.peek().act))
+            pendingByBegin.poll();
+
+        long trimBoundary = pendingByBegin.isEmpty() ?
+                boundary :
+                Math.min(boundary, pendingByBegin.peek().position);
+        trimContent(trimBoundary);
+    }
+
+    private void sortInNewActivations() {
+        while(!newActivations.isEmpty()) {
+            Activation act = newActivations.pollFirst();
+            if(act.getRange() != null)
+                sortIn(act);
+            else
+                pendingWithoutRange.add(act);
+        }
+    }
+
+    private void sortIn(Activation act) {
+        Range r = act.getRange();
+        pendingByEnd.add(new PendingEviction(r.getEnd(), act));
+        pendingByBegin.add(new PendingEviction(r.getBegin(), act));
+    }
+
+    private boolean isRetained(Activation act) {
+        return getActivation(act.getId()) == act;
+    }
+
+    private long getWindowBegin() {
+        if(windowUnit == WindowUnit.TOKENS) {
+            Iterator<TokenActivation> it = windowTokens.descendingIterator();
+            TokenActivation first = lastToken;
+            for(int i = 0; i < windowSize && it.hasNext(); i++)
+                first = it.next();
+
+            return first.getRange().getBegin();
+        }
+        return lastToken.getRange().getEnd() - windowSize;
+    }
+
+    private void evict(List<Activation> evicted) {
+        runBatched(() -> evicted.forEach(act ->
+                act.getIsFinal().set(1.0)
+        ));
+
+        process(PROCESSING);
+
+        // The post processing of the evicted activations and their links cannot be deferred to the end of the input.
+        for(Activation<?> act: evicted) {
+            processPendingSteps(act);
+            act.getInputLinks().forEach(this::processPendingSteps);
+            act.getOutputLinks().forEach(this::processPendingSteps);
+        }
+        process(PROCESSING);
+
+        evicted.forEach(act ->
+                onActivationEvictionEvent(act)
+        );
+
+        Set<Activation> evictedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        evictedSet.addAll(evicted);
+        beginBSIndex.values().removeIf(bs -> evictedSet.contains(bs.getOriginActivation()));
+        endBSIndex.values().removeIf(bs -> evictedSet.contains(bs.getOriginActivation()));
+
+        for(Activation<?> act: evicted) {
+            cancelSteps(act);
+            act.getInputLinks().forEach(this::cancelSteps);
+            act.getOutputLinks().forEach(this::cancelSteps);
+            act.detach();
+        }
+        evictedActivations += evicted.size();
+    }
+
+    private void trimContent(long boundary) {
+        int n = (int) Math.min(boundary - contentOffset, content.length());
+        if(n <= 0)
+            return;
+
+        content.delete(0, n);
+        contentOffset += n;
     }
 
     public String toString() {
@@ -139,4 +463,20 @@ public class Document extends Thought<TextModel> {
         sb.append(super.toString());
         return sb.toString();
     }
+
+    private static class PendingEviction implements Comparable<PendingEviction> {
+
+        private final long position;
+        private final Activation act;
+
+        private PendingEviction(long position, Activation act) {
+            this.position = position;
+            this.act = act;
+        }
+
+        @Override
+        public int compareTo(PendingEviction e) {
+            return Long.compare(position, e.position);
+        }
+    }
 }
@@ -95,18 +95,29 @@ public class TextModel extends Model {
             return (PatternNeuron) inProv;
         }
 
+        return createToken(tokenLabel);
+    }
+
+    private synchronized PatternNeuron createToken(String tokenLabel) {
+        Neuron inProv = getNeuron(tokenLabel);
+        if(inProv != null) {
+            return (PatternNeuron) inProv;
+        }
+
         PatternNeuron in = getTemplates().INPUT_PATTERN_TEMPLATE.instantiateTemplate(true);
 
         in.setTokenLabel(tokenLabel);
         in.setNetworkInput(true);
         in.setLabel(tokenLabel);
         in.setAllowTraining(false);
-        putLabel(tokenLabel, in.getId());
 
         initCategorySynapse(in, getTokenCategory());
 
         in.getProvider().save();
 
+        // The label is published last, so that concurrent lookups only see fully initialized token neurons.
+        putLabel(tokenLabel, in.getId());
+
         return in;
     }
 
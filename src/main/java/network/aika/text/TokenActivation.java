@@ -84,8 +84,10 @@ public class TokenActivation extends PatternActivation {
 
         TextModel model = prev.getModel();
 
-        next.linkPrimaryInput(model.getRelNTPrimaryInputSyn(), prev.relNTBindingActivation);
-        prev.linkPrimaryInput(model.getRelPTPrimaryInputSyn(), next.relPTBindingActivation);
+        prev.getThought().runAsCurrent(() -> {
+            next.linkPrimaryInput(model.getRelNTPrimaryInputSyn(), prev.relNTBindingActivation);
+            prev.linkPrimaryInput(model.getRelPTPrimaryInputSyn(), next.relPTBindingActivation);
+        });
     }
 
     private void linkPrimaryInput(PrimaryInputSynapse<CategoryNeuron, CategoryActivation> model, BindingActivation toAct) {
@@ -97,6 +99,19 @@ public class TokenActivation extends PatternActivation {
         );
     }
 
+    @Override
+    public void detach() {
+        if(previousToken != null)
+            previousToken.nextToken = null;
+        if(nextToken != null)
+            nextToken.previousToken = null;
+
+        previousToken = null;
+        nextToken = null;
+
+        super.detach();
+    }
+
     public TokenActivation getPreviousToken() {
         return previousToken;
     }
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.utils;
+
+import org.apache.commons.math3.distribution.BetaDistribution;
+import org.apache.commons.math3.special.Beta;
+import org.apache.commons.math3.special.Erf;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Computes the quantile of a Beta distribution for a fixed probability. This is the hot path behind
+ * {@link Bound#probability(double, double)}, which is evaluated for every surprisal and information-gain update.
+ *
+ * Results are memoized: quantiles of distributions with small integer parameters are kept in a lazily filled table,
+ * all other parameters go into a small direct mapped cache. On a miss, the quantile is computed by a safeguarded
+ * Newton iteration starting from a Cornish-Fisher normal approximation, which usually converges within a few steps.
+ * The iterative solver of commons-math is only used as a fallback if the Newton iteration does not converge.
+ *
+ * Instances are immutable apart from the caches and can be shared between threads. The table holds the raw bits of
+ * the quantiles in an atomic array, so that a concurrent reader never observes a torn value. Cache entries are
+ * immutable and therefore safely published through the array slot.
+ */
+public class BetaQuantile {
+
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+
+    public static final int TABLE_SIZE = 128;
+    private static final int CACHE_SIZE = 4096;
+
+    private static final int MAX_ITERATIONS = 50;
+
+    private static final long NOT_COMPUTED = Double.doubleToRawLongBits(Double.NaN);
+
+    private final double probability;
+    private final double tolerance;
+    private final double z;
+
+    private final AtomicLongArray table;
+    private final Entry[] cache = new Entry[CACHE_SIZE];
+
+    public BetaQuantile(double probability) {
+        this(probability, DEFAULT_TOLERANCE);
+    }
+
+    public BetaQuantile(double probability, double tolerance) {
+        if(probability <= 0.0 || probability >= 1.0)
+            throw new IllegalArgumentException("probability must be within (0, 1): " + probability);
+        if(tolerance <= 0.0)
+            throw new IllegalArgumentException("tolerance must be positive: " + tolerance);
+
+        this.probability = probability;
+        this.tolerance = tolerance;
+        this.z = Math.sqrt(2.0) * Erf.erfInv(2.0 * probability - 1.0);
+
+        table = new AtomicLongArray((TABLE_SIZE * (TABLE_SIZE + 1)) / 2);
+        for(int i = 0; i < table.length(); i++)
+            table.lazySet(i, NOT_COMPUTED);
+    }
+
+    public double getProbability() {
+        return probability;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Returns x such that P(X <= x) = probability for X ~ Beta(alpha, beta).
+     */
+    public double inverseCumulativeProbability(double alpha, double beta) {
+        if(!(alpha > 0.0 && beta > 0.0))
+            return exact(alpha, beta);
+
+        int tableIndex = getTableIndex(alpha, beta);
+        if(tableIndex >= 0) {
+            long bits = table.get(tableIndex);
+            if(bits != NOT_COMPUTED)
+                return Double.longBitsToDouble(bits);
+
+            double x = compute(alpha, beta);
+            table.lazySet(tableIndex, Double.doubleToRawLongBits(x));
+            return x;
+        }
+
+        int slot = getCacheSlot(alpha, beta);
+        Entry e = cache[slot];
+        if(e != null && e.alpha == alpha && e.beta == beta)
+            return e.x;
+
+        double x = compute(alpha, beta);
+        cache[slot] = new Entry(alpha, beta, x);
+        return x;
+    }
+
+    /**
+     * The quantile as computed by the iterative solver of commons-math.
+     */
+    public double exact(double alpha, double beta) {
+        return new BetaDistribution(null, alpha, beta, tolerance)
+                .inverseCumulativeProbability(probability);
+    }
+
+    private double compute(double alpha, double beta) {
+        double refined = refine(alpha, beta, approximate(alpha, beta));
+        return Double.isNaN(refined) ? exact(alpha, beta) : refined;
+    }
+
+    private double approximate(double alpha, double beta) {
+        double n = alpha + beta;
+        double mean = alpha / n;
+        double sigma = Math.sqrt((alpha * beta) / (n * n * (n + 1.0)));
+        double skewness = (2.0 * (beta - alpha) * Math.sqrt(n + 1.0)) / ((n + 2.0) * Math.sqrt(alpha * beta));
+        return mean + sigma * (z + (skewness * (z * z - 1.0)) / 6.0);
+    }
+
+    /**
+     * Newton iteration on the regularized incomplete beta function. A bracket around the root is maintained, so that
+     * steps leaving the bracket can be replaced by bisection steps.
+     *
+     * @return the refined quantile or NaN, if the iteration did not converge.
+     */
+    private double refine(double alpha, double beta, double x) {
+        double logBeta = Beta.logBeta(alpha, beta);
+
+        double lo = 0.0;
+        double hi = 1.0;
+        if(!(x > lo && x < hi))
+            x = alpha / (alpha + beta);
+
+        for(int i = 0; i < MAX_ITERATIONS; i++) {
+            double err = Beta.regularizedBeta(x, alpha, beta) - probability;
+            if(err < 0.0)
+                lo = x;
+            else
+                hi = x;
+
+            double density = Math.exp((alpha - 1.0) * Math.log(x) + (beta - 1.0) * Math.log1p(-x) - logBeta);
+            double nx = x - err / density;
+            if(!(nx > lo && nx < hi))
+                nx = 0.5 * (lo + hi);
+
+            if(Math.abs(nx - x) < tolerance)
+                return nx;
+
+            x = nx;
+        }
+        return Double.NaN;
+    }
+
+    private static int getTableIndex(double alpha, double beta) {
+        int a = (int) alpha;
+        int b = (int) beta;
+        if(a != alpha || b != beta)
+            return -1;
+
+        int n = a + b - 2;
+        if(n >= TABLE_SIZE)
+            return -1;
+
+        return ((n * (n + 1)) / 2) + (a - 1);
+    }
+
+    private static int getCacheSlot(double alpha, double beta) {
+        long h = Double.doubleToLongBits(alpha) * 31 + Double.doubleToLongBits(beta);
+        h ^= (h >>> 32);
+        h ^= (h >>> 16);
+        return (int) h & (CACHE_SIZE - 1);
+    }
+
+    private static class Entry {
+        final double alpha;
+        final double beta;
+        final double x;
+
+        Entry(double alpha, double beta, double x) {
+            this.alpha = alpha;
+            this.beta = beta;
+            this.x = x;
+        }
+    }
+}
@@ -8,9 +8,27 @@ public enum Bound {
 
     public static double BETA_THRESHOLD = 0.95;
 
+    public static double QUANTILE_TOLERANCE = BetaQuantile.DEFAULT_TOLERANCE;
+
+    private static volatile BetaQuantile quantile;
+
     public double probability(double f, double n) {
         assert n > 0.0;
 
+        BetaQuantile q = getQuantile();
+        double p = this == UPPER ?
+                q.inverseCumulativeProbability(f + 1, (n - f) + 1) :
+                q.inverseCumulativeProbability((n - f) + 1, f + 1);
+
+        return this == UPPER ? p : 1.0 - p;
+    }
+
+    /**
+     * Computes the bound directly with the iterative solver of commons-math, bypassing the quantile engine.
+     */
+    public double exactProbability(double f, double n) {
+        assert n > 0.0;
+
         BetaDistribution dist;
 
         if(this == UPPER) {
@@ -31,4 +49,13 @@ public enum Bound {
 
         return this == UPPER ? p : 1.0 - p;
     }
+
+    public static BetaQuantile getQuantile() {
+        BetaQuantile q = quantile;
+        if(q == null || q.getProbability() != BETA_THRESHOLD || q.getTolerance() != QUANTILE_TOLERANCE) {
+            q = new BetaQuantile(BETA_THRESHOLD, QUANTILE_TOLERANCE);
+            quantile = q;
+        }
+        return q;
+    }
 }
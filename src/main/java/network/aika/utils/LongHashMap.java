@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.utils;
+
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+
+/**
+ * An open addressing hash map with primitive long keys, e.g. neuron ids. Collisions are resolved by linear probing
+ * and null values are not permitted, so that an empty slot is marked by a null value.
+ *
+ * The map is meant to be written by a single thread. Since a resize publishes a completely filled table at once,
+ * other threads may read it without locking; they will either see an entry or miss one that is being added
+ * concurrently.
+ *
+ * @author Lukas Molzberger
+ */
+public class LongHashMap<V> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public V get(long key) {
+        Table t = table;
+        int mask = t.keys.length - 1;
+        for(int i = slot(key, mask); t.values[i] != null; i = (i + 1) & mask) {
+            if(t.keys[i] == key)
+                return (V) t.values[i];
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public V put(long key, V value) {
+        assert value != null;
+
+        Table t = table;
+        int mask = t.keys.length - 1;
+        int i = slot(key, mask);
+        for(; t.values[i] != null; i = (i + 1) & mask) {
+            if(t.keys[i] == key) {
+                V oldValue = (V) t.values[i];
+                t.values[i] = value;
+                return oldValue;
+            }
+        }
+
+        if((size + 1) * 2 > t.keys.length) {
+            t = t.resize(t.keys.length * 2);
+            t.add(key, value);
+            table = t;
+        } else {
+            t.add(key, value);
+        }
+        size++;
+
+        return null;
+    }
+
+    public V computeIfAbsent(long key, LongFunction<? extends V> mappingFunction) {
+        V v = get(key);
+        if(v == null) {
+            v = mappingFunction.apply(key);
+            put(key, v);
+        }
+        return v;
+    }
+
+    public void forEachKey(LongConsumer action) {
+        Table t = table;
+        for(int i = 0; i < t.keys.length; i++) {
+            if(t.values[i] != null)
+                action.accept(t.keys[i]);
+        }
+    }
+
+    public void forEachValue(Consumer<? super V> action) {
+        Table t = table;
+        for(int i = 0; i < t.keys.length; i++) {
+            if(t.values[i] != null)
+                action.accept((V) t.values[i]);
+        }
+    }
+
+    public void clear() {
+        if(size == 0)
+            return;
+
+        table = new Table(INITIAL_CAPACITY);
+        size = 0;
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static class Table {
+        final long[] keys;
+        final Object[] values;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+        }
+
+        void add(long key, Object value) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while(values[i] != null)
+                i = (i + 1) & mask;
+
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        Table resize(int capacity) {
+            Table t = new Table(capacity);
+            for(int i = 0; i < keys.length; i++) {
+                if(values[i] != null)
+                    t.add(keys[i], values[i]);
+            }
+            return t;
+        }
+    }
+}
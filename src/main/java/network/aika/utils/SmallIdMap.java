@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.utils;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A small sorted map keyed by a primitive id, e.g. a neuron id or an activation id. Keys and values are kept in two
+ * parallel arrays that are sorted by key, so that iteration follows the key order just like a TreeMap. The arrays
+ * are only allocated when the first entry is added and grow on demand. Tiny maps, which are by far the most common
+ * case, are searched linearly; larger maps use a binary search.
+ *
+ * @author Lukas Molzberger
+ */
+public class SmallIdMap<V> {
+
+    static final int LINEAR_SEARCH_LIMIT = 8;
+    static final int INITIAL_CAPACITY = 2;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int modCount;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    public V get(long key) {
+        int i = indexOf(key);
+        return i >= 0 ? (V) values[i] : null;
+    }
+
+    public V put(long key, V value) {
+        int i = indexOf(key);
+        if(i >= 0) {
+            V oldValue = (V) values[i];
+            values[i] = value;
+            return oldValue;
+        }
+
+        insert(-(i + 1), key, value);
+        return null;
+    }
+
+    public V remove(long key) {
+        int i = indexOf(key);
+        if(i < 0)
+            return null;
+
+        V oldValue = (V) values[i];
+        removeAt(i);
+        return oldValue;
+    }
+
+    public boolean remove(long key, V value) {
+        int i = indexOf(key);
+        if(i < 0 || !Objects.equals(values[i], value))
+            return false;
+
+        removeAt(i);
+        return true;
+    }
+
+    public void forEach(Consumer<? super V> action) {
+        int expectedModCount = modCount;
+        for(int i = 0; i < size; i++) {
+            checkForComodification(expectedModCount);
+            action.accept((V) values[i]);
+        }
+    }
+
+    public Stream<V> stream() {
+        if(size == 0)
+            return Stream.empty();
+
+        int expectedModCount = modCount;
+        return IntStream.range(0, size)
+                .mapToObj(i -> {
+                    checkForComodification(expectedModCount);
+                    return (V) values[i];
+                });
+    }
+
+    private void checkForComodification(int expectedModCount) {
+        if(modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+    }
+
+    private int indexOf(long key) {
+        if(size > LINEAR_SEARCH_LIMIT)
+            return Arrays.binarySearch(keys, 0, size, key);
+
+        int i = 0;
+        for(; i < size; i++) {
+            long k = keys[i];
+            if(k == key)
+                return i;
+            if(k > key)
+                break;
+        }
+        return -(i + 1);
+    }
+
+    private void insert(int i, long key, V value) {
+        if(keys == null) {
+            keys = new long[INITIAL_CAPACITY];
+            values = new Object[INITIAL_CAPACITY];
+        } else if(size == keys.length) {
+            int capacity = size + (size >> 1) + 1;
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(values, i, values, i + 1, size - i);
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        modCount++;
+    }
+
+    private void removeAt(int i) {
+        size--;
+        modCount++;
+        System.arraycopy(keys, i + 1, keys, i, size - i);
+        System.arraycopy(values, i + 1, values, i, size - i);
+        values[size] = null;
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for(int i = 0; i < size; i++) {
+            if(i > 0)
+                sb.append(", ");
+            sb.append(keys[i]).append("=").append(values[i]);
+        }
+        return sb.append("}").toString();
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.utils;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static network.aika.utils.SmallIdMap.INITIAL_CAPACITY;
+import static network.aika.utils.SmallIdMap.LINEAR_SEARCH_LIMIT;
+
+/**
+ * A small sorted map keyed by a pair of primitive ids, a neuron id and an activation id. The entries are sorted by
+ * the neuron id first, so that all entries belonging to one neuron form a contiguous bucket. A bucket is located
+ * by a single search on the primitive neuron ids and can then be visited without creating any sentinel keys,
+ * iterators or streams.
+ *
+ * Like the iterators of the collections framework, the visitors and streams are fail-fast: if an entry has been added
+ * or removed, a {@link ConcurrentModificationException} is thrown before the next entry is visited.
+ *
+ * @author Lukas Molzberger
+ */
+public class SmallIdPairMap<V> {
+
+    private long[] neuronIds;
+    private int[] actIds;
+    private Object[] values;
+    private int size;
+    private int modCount;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long neuronId, int actId) {
+        return indexOf(neuronId, actId) >= 0;
+    }
+
+    public boolean containsNeuron(long neuronId) {
+        int i = lowerBound(neuronId);
+        return i < size && neuronIds[i] == neuronId;
+    }
+
+    public V get(long neuronId, int actId) {
+        int i = indexOf(neuronId, actId);
+        return i >= 0 ? (V) values[i] : null;
+    }
+
+    public V put(long neuronId, int actId, V value) {
+        int i = indexOf(neuronId, actId);
+        if(i >= 0) {
+            V oldValue = (V) values[i];
+            values[i] = value;
+            return oldValue;
+        }
+
+        insert(-(i + 1), neuronId, actId, value);
+        return null;
+    }
+
+    public boolean remove(long neuronId, int actId, V value) {
+        int i = indexOf(neuronId, actId);
+        if(i < 0 || !Objects.equals(values[i], value))
+            return false;
+
+        removeAt(i);
+        return true;
+    }
+
+    public void forEach(Consumer<? super V> action) {
+        int expectedModCount = modCount;
+        for(int i = 0; i < size; i++) {
+            checkForComodification(expectedModCount);
+            action.accept((V) values[i]);
+        }
+    }
+
+    public Stream<V> stream() {
+        if(size == 0)
+            return Stream.empty();
+
+        return stream(0, size);
+    }
+
+    /**
+     * Visits the entries of the given neuron in the order of their activation ids. The bucket boundaries are
+     * determined before the first entry is visited.
+     */
+    public void forEach(long neuronId, Consumer<? super V> visitor) {
+        int from = lowerBound(neuronId);
+        int to = bucketEnd(from, neuronId);
+
+        int expectedModCount = modCount;
+        for(int i = from; i < to; i++) {
+            checkForComodification(expectedModCount);
+            visitor.accept((V) values[i]);
+        }
+    }
+
+    /**
+     * Returns the entries of the given neuron in the order of their activation ids.
+     */
+    public Stream<V> stream(long neuronId) {
+        int from = lowerBound(neuronId);
+        int to = bucketEnd(from, neuronId);
+
+        if(from == to)
+            return Stream.empty();
+
+        return stream(from, to);
+    }
+
+    private Stream<V> stream(int from, int to) {
+        int expectedModCount = modCount;
+        return IntStream.range(from, to)
+                .mapToObj(i -> {
+                    checkForComodification(expectedModCount);
+                    return (V) values[i];
+                });
+    }
+
+    private void checkForComodification(int expectedModCount) {
+        if(modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+    }
+
+    private int compare(int i, long neuronId, int actId) {
+        int c = Long.compare(neuronIds[i], neuronId);
+        return c != 0 ? c : Integer.compare(actIds[i], actId);
+    }
+
+    private int indexOf(long neuronId, int actId) {
+        int lo = 0;
+        int hi = size - 1;
+        if(size <= LINEAR_SEARCH_LIMIT) {
+            for(; lo <= hi; lo++) {
+                int c = compare(lo, neuronId, actId);
+                if(c == 0)
+                    return lo;
+                if(c > 0)
+                    break;
+            }
+            return -(lo + 1);
+        }
+
+        while(lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = compare(mid, neuronId, actId);
+            if(c < 0)
+                lo = mid + 1;
+            else if(c > 0)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        return -(lo + 1);
+    }
+
+    private int lowerBound(long neuronId) {
+        if(size <= LINEAR_SEARCH_LIMIT) {
+            int i = 0;
+            while(i < size && neuronIds[i] < neuronId)
+                i++;
+            return i;
+        }
+
+        int lo = 0;
+        int hi = size;
+        while(lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if(neuronIds[mid] < neuronId)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    private int bucketEnd(int from, long neuronId) {
+        int to = from;
+        while(to < size && neuronIds[to] == neuronId)
+            to++;
+        return to;
+    }
+
+    private void insert(int i, long neuronId, int actId, V value) {
+        if(neuronIds == null) {
+            neuronIds = new long[INITIAL_CAPACITY];
+            actIds = new int[INITIAL_CAPACITY];
+            values = new Object[INITIAL_CAPACITY];
+        } else if(size == neuronIds.length) {
+            int capacity = size + (size >> 1) + 1;
+            neuronIds = Arrays.copyOf(neuronIds, capacity);
+            actIds = Arrays.copyOf(actIds, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        System.arraycopy(neuronIds, i, neuronIds, i + 1, size - i);
+        System.arraycopy(actIds, i, actIds, i + 1, size - i);
+        System.arraycopy(values, i, values, i + 1, size - i);
+        neuronIds[i] = neuronId;
+        actIds[i] = actId;
+        values[i] = value;
+        size++;
+        modCount++;
+    }
+
+    private void removeAt(int i) {
+        size--;
+        modCount++;
+        System.arraycopy(neuronIds, i + 1, neuronIds, i, size - i);
+        System.arraycopy(actIds, i + 1, actIds, i, size - i);
+        System.arraycopy(values, i + 1, values, i, size - i);
+        values[size] = null;
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for(int i = 0; i < size; i++) {
+            if(i > 0)
+                sb.append(", ");
+            sb.append(neuronIds[i]).append(":").append(actIds[i]).append("=").append(values[i]);
+        }
+        return sb.append("}").toString();
+    }
+}
@@ -17,6 +17,7 @@
 package network.aika.utils;
 
 import network.aika.Config;
+import network.aika.Thought;
 import network.aika.neuron.Neuron;
 import network.aika.neuron.Synapse;
 import network.aika.neuron.Templates;
@@ -29,7 +30,11 @@ import network.aika.neuron.conjunctive.PositiveFeedbackSynapse;
 import network.aika.neuron.disjunctive.CategoryNeuron;
 import network.aika.neuron.disjunctive.InhibitoryNeuron;
 import network.aika.text.Document;
+import network.aika.text.TextModel;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  *
@@ -57,6 +62,36 @@ public class TestUtils {
         };
     }
 
+    /**
+     * Processes the space separated tokens of the given text in a new document, including the final mode and the
+     * post processing.
+     */
+    public static Document processDocument(TextModel m, String txt, Config c) {
+        Document doc = new Document(m, txt);
+        doc.setConfig(c);
+
+        doc.processTokens(Arrays.asList(doc.getContent().split(" ")));
+        doc.processFinalMode();
+        doc.postProcessing();
+
+        return doc;
+    }
+
+    public static String toResultString(Activation act) {
+        return act.getId() + " " + act.getLabel() + " " + act.getRange() + " value:" + act.getValue() + " net:" + act.getNet();
+    }
+
+    /**
+     * Describes every activation of the given thought, including the number of its input links, so that the results
+     * of two runs can be compared.
+     */
+    public static List<String> toResultStrings(Thought<?> t) {
+        List<String> results = new ArrayList<>();
+        for(Activation act: t.getActivations())
+            results.add(toResultString(act) + " inputLinks:" + act.getInputLinks().count());
+        return results;
+    }
+
     private static String trimPrefix(String l) {
         return l.substring(l.indexOf("-") + 1);
     }
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.utils.BetaQuantile;
+import network.aika.utils.Bound;
+import org.junit.jupiter.api.Test;
+
+import static network.aika.utils.Bound.LOWER;
+import static network.aika.utils.Bound.UPPER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the quantile engine behind {@link Bound} with the exact commons-math solver.
+ */
+public class BoundTest {
+
+    private static final double ACCURACY = 1e-6;
+
+    @Test
+    public void testIntegerFrequencies() {
+        for(int n = 1; n < 300; n += 7) {
+            for(int f = 0; f <= n; f += Math.max(1, n / 10)) {
+                assertEquals(UPPER.exactProbability(f, n), UPPER.probability(f, n), ACCURACY, "f:" + f + " n:" + n);
+                assertEquals(LOWER.exactProbability(f, n), LOWER.probability(f, n), ACCURACY, "f:" + f + " n:" + n);
+            }
+        }
+    }
+
+    @Test
+    public void testFractionalFrequencies() {
+        for(double n = 0.5; n < 100000.0; n *= 1.7) {
+            for(double r = 0.0; r <= 1.0; r += 0.125) {
+                double f = r * n;
+                assertEquals(UPPER.exactProbability(f, n), UPPER.probability(f, n), ACCURACY, "f:" + f + " n:" + n);
+                assertEquals(LOWER.exactProbability(f, n), LOWER.probability(f, n), ACCURACY, "f:" + f + " n:" + n);
+            }
+        }
+    }
+
+    @Test
+    public void testToleranceIsConfigurable() {
+        BetaQuantile coarse = new BetaQuantile(Bound.BETA_THRESHOLD, 1e-3);
+        BetaQuantile fine = new BetaQuantile(Bound.BETA_THRESHOLD, 1e-12);
+
+        assertEquals(fine.exact(3.5, 120.25), fine.inverseCumulativeProbability(3.5, 120.25), 1e-9);
+        assertEquals(fine.exact(3.5, 120.25), coarse.inverseCumulativeProbability(3.5, 120.25), 1e-3);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.neuron.Neuron;
+import network.aika.neuron.NeuronProvider;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static network.aika.utils.TestUtils.getConfig;
+import static network.aika.utils.TestUtils.processDocument;
+import static network.aika.utils.TestUtils.toResultStrings;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Processes many documents in parallel against one shared model and compares the results with a sequential run.
+ */
+public class ConcurrentInferenceTest {
+
+    private static final int THREADS = 8;
+    private static final int DOCUMENTS = 200;
+    private static final String[] VOCABULARY = {"A", "B", "C", "D", "E", "F", "G", "H"};
+
+    @Test
+    public void stressTest() throws Exception {
+        List<String> texts = createTexts(new Random(7));
+
+        TextModel reference = new TextModel();
+        reference.init();
+
+        // Most of the tokens are only created while the documents are processed concurrently.
+        TextModel m = new TextModel();
+        m.init();
+        m.lookupToken("A");
+        m.lookupToken("B");
+
+        List<List<String>> sequential = new ArrayList<>();
+        for(String txt: texts)
+            sequential.add(process(reference, txt));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for(int round = 0; round < 3; round++) {
+                List<Future<List<String>>> results = new ArrayList<>();
+                for(String txt: texts)
+                    results.add(executor.submit(() -> process(m, txt)));
+
+                for(int i = 0; i < texts.size(); i++)
+                    assertEquals(sequential.get(i), results.get(i).get(), texts.get(i));
+
+                // Closed documents must not stay reachable from the shared fields of the model.
+                assertEquals(countModelReceivers(reference), countModelReceivers(m));
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        }
+    }
+
+    @Test
+    public void testActivationsAreOwnedByThought() {
+        TextModel m = new TextModel();
+        m.init();
+        Neuron tokenA = m.lookupToken("A");
+
+        Document doc1 = new Document(m, "A B A ");
+        doc1.setConfig(getConfig().setTrainingEnabled(false));
+        doc1.processTokens(List.of("A", "B", "A"));
+
+        Document doc2 = new Document(m, "A ");
+        doc2.setConfig(getConfig().setTrainingEnabled(false));
+        doc2.processTokens(List.of("A"));
+
+        assertEquals(2, tokenA.getActivations(doc1).size());
+        assertEquals(1, tokenA.getActivations(doc2).size());
+
+        doc1.close();
+        assertTrue(tokenA.getActivations(doc1).isEmpty());
+        assertEquals(1, tokenA.getActivations(doc2).size());
+
+        doc2.close();
+    }
+
+    private static int countModelReceivers(Model m) {
+        int count = 0;
+        for(NeuronProvider np: m.getActiveNeurons()) {
+            Neuron<?, ?> n = np.getNeuron();
+            count += n.getBias().getNumberOfReceivers();
+            count += n.getInputSynapses()
+                    .mapToInt(s -> s.getWeight().getNumberOfReceivers())
+                    .sum();
+        }
+        return count;
+    }
+
+    private List<String> createTexts(Random rnd) {
+        List<String> texts = new ArrayList<>();
+        for(int i = 0; i < DOCUMENTS; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = 1 + rnd.nextInt(6);
+            for(int j = 0; j < length; j++) {
+                sb.append(VOCABULARY[rnd.nextInt(VOCABULARY.length)]);
+                sb.append(' ');
+            }
+            texts.add(sb.toString());
+        }
+        return texts;
+    }
+
+    private List<String> process(TextModel m, String txt) {
+        Document doc = processDocument(m, txt,
+                getConfig()
+                        .setTrainingEnabled(false)
+        );
+
+        List<String> result = toResultStrings(doc);
+        doc.close();
+        return result;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.callbacks.EventListener;
+import network.aika.neuron.Synapse;
+import network.aika.neuron.activation.Activation;
+import network.aika.steps.Step;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static network.aika.callbacks.EventType.ACTIVATION_CREATION;
+import static network.aika.utils.TestUtils.getConfig;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventListenerTest {
+
+    @Test
+    public void testSubscriptions() {
+        TextModel m = new TextModel();
+        m.init();
+
+        Document doc = new Document(m, "A B ");
+        doc.setConfig(getConfig());
+
+        int[] allEvents = new int[1];
+        int[] activationEvents = new int[1];
+
+        EventListener all = new EventListener() {
+            @Override
+            public void beforeProcessedEvent(Step s) {
+                allEvents[0]++;
+            }
+        };
+        EventListener activationsOnly = new EventListener() {
+            @Override
+            public void beforeProcessedEvent(Step s) {
+                fail("not subscribed");
+            }
+
+            @Override
+            public void onActivationCreationEvent(Activation act, Synapse originSynapse, Activation originAct) {
+                activationEvents[0]++;
+            }
+        };
+
+        doc.addEventListener(all);
+        doc.addEventListener(activationsOnly, ACTIVATION_CREATION);
+        assertEquals(2, doc.getEventListeners().size());
+
+        doc.processTokens(Arrays.asList(doc.getContent().split(" ")));
+
+        assertTrue(allEvents[0] > 0);
+        assertEquals(doc.getNumberOfActivations(), activationEvents[0]);
+
+        doc.removeEventListener(all);
+        int eventsBefore = allEvents[0];
+        doc.processFinalMode();
+
+        assertEquals(eventsBefore, allEvents[0]);
+        assertEquals(1, doc.getEventListeners().size());
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.fields.AbstractBiFunction;
+import network.aika.fields.Field;
+import network.aika.fields.FieldArena;
+import network.aika.fields.FieldFunction;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.activation.Link;
+import network.aika.neuron.conjunctive.BindingNeuron;
+import network.aika.neuron.conjunctive.PatternNeuron;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static network.aika.fields.Fields.connect;
+import static network.aika.fields.Fields.func;
+import static network.aika.utils.TestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the bulk release of the field links of a thought by a {@link FieldArena}.
+ */
+public class FieldArenaTest {
+
+    @Test
+    public void testReleaseDetachesSharedFields() {
+        Field bias = new Field(null, "bias", 1.0);
+        bias.setShared();
+
+        FieldArena arena = new FieldArena(true);
+        FieldArena.activate(arena);
+        Field net = new Field(null, "net");
+        Field value = new Field(null, "value");
+        try {
+            connect(bias, net);
+            connect(net, value);
+        } finally {
+            FieldArena.activate(null);
+        }
+        assertEquals(2, arena.size());
+        assertEquals(1.0, value.getCurrentValue());
+
+        arena.release();
+        assertTrue(arena.isReleased());
+
+        bias.receiveUpdate(0, 2.0);
+        assertEquals(3.0, bias.getCurrentValue());
+        assertEquals(1.0, net.getCurrentValue());
+        assertEquals(1.0, value.getCurrentValue());
+    }
+
+    @Test
+    public void testReleasedLinksAreReused() {
+        FieldArena first = new FieldArena(false);
+        FieldArena.activate(first);
+        connect(new Field(null, "a"), new Field(null, "b"));
+        first.release();
+
+        FieldArena second = new FieldArena(false);
+        FieldArena.activate(second);
+        connect(new Field(null, "c"), new Field(null, "d"));
+        second.release();
+
+        assertEquals(1, second.getReused());
+        assertNull(FieldArena.getActive());
+    }
+
+    @Test
+    public void testUseAfterCloseIsDetected() {
+        TextModel m = new TextModel();
+        m.init();
+        m.lookupToken("A");
+
+        Document doc = new Document(m, "A ");
+        doc.setConfig(
+                getConfig()
+                        .setArenaEnabled(true)
+                        .setArenaChecked(true)
+        );
+        doc.processTokens(List.of("A"));
+        assertNull(FieldArena.getActive());
+
+        doc.processFinalMode();
+        assertNull(FieldArena.getActive());
+        assertTrue(doc.getArena().size() > 0);
+
+        Activation act = doc.getActivations().iterator().next();
+        boolean fired = act.isFired();
+        doc.close();
+
+        assertNull(FieldArena.getActive());
+        assertEquals(fired, act.isFired());
+        assertThrows(IllegalStateException.class, () -> doc.addToken("A", 0, 1));
+    }
+
+    @Test
+    public void testReadAfterReleaseFails() {
+        Field a = new Field(null, "a", 1.0);
+        Field b = new Field(null, "b", 2.0);
+
+        FieldArena arena = new FieldArena(true);
+        FieldArena.activate(arena);
+        AbstractBiFunction sum;
+        try {
+            sum = func("a + b", a, b, Double::sum);
+        } finally {
+            FieldArena.activate(null);
+        }
+        assertEquals(3.0, sum.getCurrentValue());
+
+        arena.release();
+        assertEquals(1.0, a.getCurrentValue());
+        assertThrows(IllegalStateException.class, sum::getCurrentValue);
+    }
+
+    @Test
+    public void testReadAfterCloseFails() {
+        TextModel m = new TextModel();
+        m.init();
+        m.lookupToken("A");
+
+        Document doc = new Document(m, "A ");
+        doc.setConfig(
+                getConfig()
+                        .setArenaEnabled(true)
+                        .setArenaChecked(true)
+        );
+        doc.processTokens(List.of("A"));
+        doc.processFinalMode();
+
+        AbstractBiFunction weightedInput = null;
+        for(Activation<?> act: doc.getActivations()) {
+            Link<?, ?, ?> l = act.getInputLinks().findFirst().orElse(null);
+            if(l != null && l.getWeightedInput() != null)
+                weightedInput = l.getWeightedInput();
+        }
+        assertNotNull(weightedInput);
+        weightedInput.getCurrentValue();
+        doc.close();
+
+        assertThrows(IllegalStateException.class, weightedInput::getCurrentValue);
+    }
+
+    @Test
+    public void testReadAfterUncheckedRelease() {
+        Field in = new Field(null, "in", 1.0);
+
+        FieldArena arena = new FieldArena(false);
+        FieldArena.activate(arena);
+        FieldFunction f;
+        try {
+            f = func("2x + 1", in, x -> (2.0 * x) + 1.0);
+        } finally {
+            FieldArena.activate(null);
+        }
+        assertEquals(3.0, f.getCurrentValue());
+
+        arena.release();
+        assertFalse(f.isInitialized());
+        assertEquals(1.0, f.getCurrentValue());
+        assertEquals("--", f.toString());
+    }
+
+    @Test
+    public void testReadAfterUncheckedClose() {
+        TextModel m = new TextModel();
+        m.setN(912);
+        m.init();
+        PatternNeuron jacksonIN = m.lookupToken("Jackson");
+        setStatistic(jacksonIN, 53.0, 299, 899l);
+        BindingNeuron jacksonBN = createNeuron(m.getTemplates().BINDING_TEMPLATE, "jackson");
+        createSynapse(m.getTemplates().PRIMARY_INPUT_SYNAPSE_FROM_PATTERN_TEMPLATE, jacksonIN, jacksonBN, 10.0);
+        updateBias(jacksonBN, 2.0);
+
+        Document doc = new Document(m, "Jackson");
+        doc.setConfig(
+                getConfig()
+                        .setTrainingEnabled(true)
+                        .setArenaEnabled(true)
+        );
+        doc.processTokens(List.of("Jackson"));
+        doc.processFinalMode();
+
+        Activation<?> act = doc.getActivations().stream()
+                .filter(a -> a.getNeuron() == jacksonBN)
+                .findFirst()
+                .orElseThrow();
+        FieldFunction outerGradient = act.getNetOuterGradient();
+        assertTrue(outerGradient.isInitialized());
+        doc.close();
+
+        assertFalse(outerGradient.isInitialized());
+        assertEquals(act.getActivationFunction().outerGrad(0.0), outerGradient.getCurrentValue());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.fields.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static network.aika.fields.Fields.*;
+import static network.aika.fields.ThresholdOperator.Type.ABOVE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares a fused kernel with the equivalent graph of field functions.
+ */
+public class FieldKernelTest {
+
+    @Test
+    public void testKernelMatchesFunctionGraph() {
+        List<String> graphEvents = new ArrayList<>();
+        List<String> kernelEvents = new ArrayList<>();
+
+        Field graphNet = new Field(null, "net", 0.0);
+        Field graphValue = new Field(null, "value");
+        ThresholdOperator graphIsFired = threshold("isFired", 0.0, ABOVE, graphNet);
+        graphIsFired.addEventListener(() -> graphEvents.add("fired " + graphNet.getCurrentValue()));
+        FieldFunction graphForWeight = func("(isFired * 2) - 1", graphIsFired, x -> (x * 2.0) - 1.0);
+        func("f(net)", graphNet, x -> Math.tanh(x), graphValue);
+
+        Field kernelNet = new Field(null, "net", 0.0);
+        Field kernelValue = new Field(null, "value");
+        FieldKernel kernel = kernel("net-kernel", kernelNet);
+        KernelOutput kernelIsFired = kernel.threshold("isFired", 0.0, ABOVE);
+        kernelIsFired.addEventListener(() -> kernelEvents.add("fired " + kernelNet.getCurrentValue()));
+        KernelOutput kernelForWeight = kernelIsFired.func("(isFired * 2) - 1", x -> (x * 2.0) - 1.0);
+        kernel.func("f(net)", x -> Math.tanh(x), kernelValue);
+
+        Field graphSum = new Field(null, "sum");
+        connect(graphForWeight, graphSum);
+        Field kernelSum = new Field(null, "sum");
+        connect(kernelForWeight, kernelSum);
+
+        Random rnd = new Random(3);
+        for(int i = 0; i < 1000; i++) {
+            double u = rnd.nextDouble() * 2.0 - 1.0;
+            graphNet.receiveUpdate(0, u);
+            kernelNet.receiveUpdate(0, u);
+
+            assertEquals(graphIsFired.getCurrentValue(), kernelIsFired.getCurrentValue());
+            assertEquals(graphForWeight.getCurrentValue(), kernelForWeight.getCurrentValue());
+            assertEquals(graphValue.getCurrentValue(), kernelValue.getCurrentValue(), 1e-9);
+            assertEquals(graphSum.getCurrentValue(), kernelSum.getCurrentValue(), 1e-9);
+        }
+        assertEquals(graphEvents, kernelEvents);
+    }
+
+    /**
+     * Chained outputs are computed from the cached value of the output they are based on, so that the function of the
+     * kernel output is only evaluated once per update.
+     */
+    @Test
+    public void testChainedOutputsReuseBaseValue() {
+        int[] evaluations = new int[1];
+        Field net = new Field(null, "net", 1.0);
+        KernelOutput exp = kernel("net-kernel", net).func("exp(net)", x -> {
+            evaluations[0]++;
+            return Math.exp(x);
+        });
+        KernelOutput doubled = exp.func("exp(net) * 2", x -> x * 2.0);
+        KernelOutput shifted = doubled.func("(exp(net) * 2) + 1", x -> x + 1.0);
+        Field sum = new Field(null, "sum");
+        connect(shifted, sum);
+
+        assertEquals((Math.E * 2.0) + 1.0, shifted.getCurrentValue(), 1e-9);
+        int initial = evaluations[0];
+
+        net.receiveUpdate(0, 1.0);
+
+        assertEquals(Math.exp(2.0) * 2.0, doubled.getCurrentValue(), 1e-9);
+        assertEquals((Math.exp(2.0) * 2.0) + 1.0, shifted.getCurrentValue(), 1e-9);
+        assertEquals((Math.exp(2.0) * 2.0) + 1.0, sum.getCurrentValue(), 1e-9);
+        assertEquals(initial + 1, evaluations[0]);
+    }
+}
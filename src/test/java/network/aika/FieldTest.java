@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.fields.Field;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static network.aika.fields.Fields.connect;
+import static network.aika.fields.Fields.disconnect;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the initialization and update state of {@link Field}.
+ */
+public class FieldTest {
+
+    @Test
+    public void testInitializationAndUpdates() {
+        Field in = new Field(null, "in");
+        Field out = new Field(null, "out");
+        connect(in, out);
+
+        assertFalse(in.isInitialized());
+        assertFalse(out.isInitialized());
+        assertEquals("--", in.toString());
+
+        in.receiveUpdate(0, 0.0);
+        assertTrue(in.isInitialized());
+        assertTrue(out.isInitialized());
+        assertEquals(0.0, out.getCurrentValue());
+
+        in.set(2.5);
+        in.receiveUpdate(0, -1.0);
+        assertEquals(1.5, in.getCurrentValue());
+        assertEquals(1.5, out.getCurrentValue());
+
+        // Updates below the tolerance are kept pending until they add up.
+        in.receiveUpdate(0, 1e-12);
+        assertEquals(1.5, in.getCurrentValue());
+        in.receiveUpdate(0, 1.0);
+        assertEquals(2.5 + 1e-12, in.getCurrentValue(), 1e-15);
+    }
+
+    @Test
+    public void testDisconnectKeepsReceiverOrder() {
+        Field in = new Field(null, "in");
+        Field[] outs = new Field[8];
+        List<Integer> order = new ArrayList<>();
+        for(int i = 0; i < outs.length; i++) {
+            int j = i;
+            outs[i] = new Field(null, "out-" + i, () -> order.add(j));
+            connect(in, outs[i]);
+        }
+        int[] fired = new int[1];
+        in.addEventListener(() -> fired[0]++);
+
+        for(int i = 0; i < outs.length; i += 2)
+            outs[i].disconnect();
+        disconnect(in, outs[1]);
+
+        in.receiveUpdate(0, 1.0);
+        assertEquals(List.of(3, 5, 7), order);
+        assertEquals(1, fired[0]);
+        assertFalse(outs[0].isInitialized());
+        assertFalse(outs[1].isInitialized());
+        assertEquals(1.0, outs[7].getCurrentValue());
+    }
+
+    @Test
+    public void testSerialization() throws IOException {
+        Field f = new Field(null, "f", 3.0);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        f.write(new DataOutputStream(baos));
+
+        Field g = new Field(null, "g");
+        g.readFields(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())), null);
+
+        assertTrue(g.isInitialized());
+        assertEquals(3.0, g.getCurrentValue());
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.fields.Field;
+import network.aika.fields.FieldLink;
+import network.aika.fields.FieldUpdateBatch;
+import network.aika.neuron.activation.Element;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import static network.aika.fields.Fields.*;
+import static network.aika.utils.TestUtils.getConfig;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the iterative propagation of field updates within a {@link FieldUpdateBatch}.
+ */
+public class FieldUpdateBatchTest {
+
+    @Test
+    public void testLongChainDoesNotRecurse() {
+        Document doc = createDocument(true);
+        Element e = createElement(doc);
+
+        Field first = new Field(e, "f-0");
+        Field last = first;
+        for(int i = 1; i < 200000; i++) {
+            Field f = new Field(e, "f-" + i);
+            connect(last, f);
+            last = f;
+        }
+
+        doc.getFieldUpdateBatch().run(() -> first.receiveUpdate(0, 1.0));
+
+        assertEquals(1.0, last.getCurrentValue());
+        assertEquals(199999, last.getRank());
+    }
+
+    @Test
+    public void testUpdatesAreMerged() {
+        Document doc = createDocument(true);
+        Element e = createElement(doc);
+
+        Field a = new Field(e, "a", 0.0);
+        Field b = new Field(e, "b", 0.0);
+        Field sum = new Field(e, "sum", 0.0);
+        connect(scale("2 * a", 2.0, a), sum);
+        connect(b, sum);
+
+        int[] propagations = new int[1];
+        sum.addOutput(new FieldLink(sum, 0, (arg, u) -> propagations[0]++), false);
+
+        FieldUpdateBatch batch = doc.getFieldUpdateBatch();
+        batch.run(() -> {
+            a.receiveUpdate(0, 1.0);
+            b.receiveUpdate(0, 3.0);
+            a.receiveUpdate(0, 0.5);
+        });
+
+        assertEquals(1.5, a.getCurrentValue());
+        assertEquals(6.0, sum.getCurrentValue());
+        assertEquals(1, propagations[0]);
+        assertEquals(2, batch.getMerged());
+        assertFalse(batch.isActive());
+    }
+
+    @Test
+    public void testNoBatchWithoutConfig() {
+        Document doc = createDocument(false);
+        assertNull(doc.getFieldUpdateBatch());
+
+        Field a = new Field(createElement(doc), "a", 0.0);
+        int[] propagations = new int[1];
+        a.addOutput(new FieldLink(a, 0, (arg, u) -> propagations[0]++), false);
+
+        a.receiveUpdate(0, 1.0);
+        assertEquals(1, propagations[0]);
+    }
+
+    private static Document createDocument(boolean batched) {
+        TextModel m = new TextModel();
+        Document doc = new Document(m, "");
+        doc.setConfig(
+                getConfig()
+                        .setBatchedPropagationEnabled(batched)
+        );
+        return doc;
+    }
+
+    private static Element createElement(Thought t) {
+        return new Element() {
+            @Override
+            public long getFired() {
+                return 0;
+            }
+
+            @Override
+            public Thought getThought() {
+                return t;
+            }
+
+            @Override
+            public Config getConfig() {
+                return t.getConfig();
+            }
+
+            @Override
+            public int compareTo(Object o) {
+                return 0;
+            }
+        };
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.fields.*;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.conjunctive.BindingNeuron;
+import network.aika.neuron.conjunctive.PatternNeuron;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static network.aika.fields.Fields.*;
+import static network.aika.sign.Sign.POS;
+import static network.aika.utils.TestUtils.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Checks that the outputs of function nodes are only recomputed once an input has changed.
+ */
+public class FunctionCacheTest {
+
+    @Test
+    public void testFieldFunction() {
+        int[] evaluations = new int[1];
+        Field in = new Field(null, "in", 1.0);
+        Field out = new Field(null, "out");
+        FieldFunction f = cachedFunc("2x", in, x -> {
+            evaluations[0]++;
+            return 2.0 * x;
+        }, out);
+
+        assertEquals(2.0, out.getCurrentValue());
+        int initial = evaluations[0];
+
+        assertEquals(2.0, f.getCurrentValue());
+        assertEquals(2.0, f.getCurrentValue());
+        assertEquals(initial, evaluations[0]);
+
+        // Only the new value is computed for an update, the old one is taken from the cache.
+        in.receiveUpdate(0, 1.0);
+        assertEquals(initial + 1, evaluations[0]);
+        assertEquals(4.0, out.getCurrentValue());
+
+        // After the update has been acknowledged, the value computed for it becomes the current value.
+        assertEquals(4.0, f.getCurrentValue());
+        assertEquals(initial + 1, evaluations[0]);
+
+        f.invalidate();
+        assertEquals(4.0, f.getCurrentValue());
+        assertEquals(initial + 2, evaluations[0]);
+    }
+
+    @Test
+    public void testBiFunctionAndKernel() {
+        int[] evaluations = new int[2];
+        Field a = new Field(null, "a", 1.0);
+        Field b = new Field(null, "b", 2.0);
+        BiFunction sum = new BiFunction("a + b", (x1, x2) -> {
+            evaluations[0]++;
+            return x1 + x2;
+        }, true);
+        connect(a, 1, sum);
+        connect(b, 2, sum);
+        KernelOutput exp = kernel("kernel", a).func("exp(a)", x -> {
+            evaluations[1]++;
+            return Math.exp(x);
+        });
+
+        assertEquals(3.0, sum.getCurrentValue());
+        assertEquals(Math.E, exp.getCurrentValue());
+        int[] initial = evaluations.clone();
+
+        a.receiveUpdate(0, 1.0);
+        b.receiveUpdate(0, 1.0);
+
+        assertEquals(5.0, sum.getCurrentValue());
+        assertEquals(Math.exp(2.0), exp.getCurrentValue());
+        assertEquals(initial[0] + 2, evaluations[0]);
+        assertEquals(initial[1] + 1, evaluations[1]);
+    }
+
+    @Test
+    public void testUncachedFunction() {
+        double[] factor = {2.0};
+        Field in = new Field(null, "in", 1.0);
+        FieldFunction f = func("factor * x", in, x -> factor[0] * x);
+
+        assertEquals(2.0, f.getCurrentValue());
+
+        factor[0] = 3.0;
+        assertEquals(3.0, f.getCurrentValue());
+    }
+
+    /**
+     * The entropy depends on the statistics of the neuron, which are not covered by the version of its input.
+     */
+    @Test
+    public void testEntropyFollowsStatistics() {
+        TextModel m = new TextModel();
+        m.setN(912);
+        m.init();
+        PatternNeuron jacksonIN = m.lookupToken("Jackson");
+        setStatistic(jacksonIN, 53.0, 299, 899l);
+        BindingNeuron jacksonBN = createNeuron(m.getTemplates().BINDING_TEMPLATE, "jackson");
+        createSynapse(m.getTemplates().PRIMARY_INPUT_SYNAPSE_FROM_PATTERN_TEMPLATE, jacksonIN, jacksonBN, 10.0);
+        updateBias(jacksonBN, 2.0);
+        setStatistic(jacksonBN, 53.0, 299, 899l);
+
+        Document doc = new Document(m, "Jackson");
+        doc.setConfig(
+                getConfig()
+                        .setTrainingEnabled(true)
+        );
+        doc.processTokens(List.of("Jackson"));
+        doc.processFinalMode();
+
+        Activation act = doc.getActivations().stream()
+                .filter(a -> a.getNeuron() == jacksonBN)
+                .findFirst()
+                .orElseThrow();
+
+        double entropy = act.getEntropy().getCurrentValue();
+        assertEquals(jacksonBN.getSurprisal(POS, act.getAbsoluteRange(), true), entropy);
+
+        setStatistic(jacksonBN, 10.0, 121, 899l);
+        double newEntropy = act.getEntropy().getCurrentValue();
+        assertNotEquals(entropy, newEntropy);
+        assertEquals(jacksonBN.getSurprisal(POS, act.getAbsoluteRange(), true), newEntropy);
+    }
+}
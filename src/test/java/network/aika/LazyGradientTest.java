@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.fields.FieldOutput;
+import network.aika.metrics.MetricsSnapshot;
+import network.aika.neuron.Neuron;
+import network.aika.neuron.NeuronProvider;
+import network.aika.neuron.Templates;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.conjunctive.BindingNeuron;
+import network.aika.neuron.conjunctive.PatternNeuron;
+import network.aika.neuron.disjunctive.CategoryNeuron;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static network.aika.utils.TestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Trains the same model with eagerly and lazily constructed gradient subgraphs.
+ *
+ * @author Lukas Molzberger
+ */
+public class LazyGradientTest {
+
+    @Test
+    public void testSameTrainingResults() {
+        Map<String, Double> eager = train(false);
+        Map<String, Double> lazy = train(true);
+
+        assertEquals(eager, lazy);
+    }
+
+    @Test
+    public void testAvoidedGradients() {
+        TextModel m = initModel();
+        Document doc = processDocument(m, true);
+
+        MetricsSnapshot s = doc.getMetricsSnapshot();
+        assertTrue(s.getDeferredGradients() > 0);
+        assertTrue(s.getAvoidedGradients() > 0);
+        assertTrue(s.getMaterializedGradients() > 0);
+    }
+
+    private Map<String, Double> train(boolean lazyGradients) {
+        TextModel m = initModel();
+        Document doc = processDocument(m, lazyGradients);
+
+        // The gradients and the parameters are compared with full precision.
+        Map<String, Double> params = new TreeMap<>();
+        for(Activation act: doc.getActivations()) {
+            params.put(act.getId() + " backprop input gradient", getValue(act.getBackpropInputGradient()));
+            params.put(act.getId() + " output gradient", getValue(act.getOutputGradient()));
+        }
+
+        for(NeuronProvider p: m.getActiveNeurons()) {
+            Neuron<?, ?> n = p.getNeuron();
+            params.put(n.toString() + " bias", n.getBias().getCurrentValue());
+            n.getInputSynapses().forEach(s ->
+                    params.put(s.toString() + " weight", s.getWeight().getCurrentValue())
+            );
+        }
+        return params;
+    }
+
+    /**
+     * A gradient field that has not been materialized or initialized yet corresponds to a zero gradient.
+     */
+    private static double getValue(FieldOutput f) {
+        return f != null && f.isInitialized() ? f.getCurrentValue() : 0.0;
+    }
+
+    private Document processDocument(TextModel m, boolean lazyGradients) {
+        Document doc = new Document(m, "Jackson Cook");
+        doc.setConfig(
+                getConfig()
+                        .setAlpha(0.99)
+                        .setLearnRate(-0.5)
+                        .setInductionThreshold(0.1)
+                        .setTrainingEnabled(true)
+                        .setMetricsEnabled(true)
+                        .setLazyGradientsEnabled(lazyGradients)
+        );
+
+        doc.processTokens(List.of("Jackson", "Cook"));
+        doc.processFinalMode();
+        doc.postProcessing();
+        doc.updateModel();
+        return doc;
+    }
+
+    private TextModel initModel() {
+        TextModel m = new TextModel();
+        m.setN(912);
+        m.init();
+        Templates t = m.getTemplates();
+
+        PatternNeuron jacksonIN = m.lookupToken("Jackson");
+        setStatistic(jacksonIN, 53.0, 299, 899l);
+        PatternNeuron cookIN = m.lookupToken("Cook");
+        setStatistic(cookIN, 10.0, 121, 739l);
+
+        BindingNeuron jacksonForenameBN = createNeuron(t.BINDING_TEMPLATE, "jackson (forename)");
+        createSynapse(t.PRIMARY_INPUT_SYNAPSE_FROM_PATTERN_TEMPLATE, jacksonIN, jacksonForenameBN, 10.0);
+        PatternNeuron jacksonForenameEntity = initPatternLoop(t, "Entity: jackson (forename)", jacksonForenameBN);
+        updateBias(jacksonForenameEntity, 3.0);
+        CategoryNeuron forenameCN = createNeuron(t.CATEGORY_TEMPLATE, "forename");
+        createSynapse(t.CATEGORY_SYNAPSE_TEMPLATE, jacksonForenameEntity, forenameCN, 10.0);
+
+        BindingNeuron jacksonCityBN = createNeuron(t.BINDING_TEMPLATE, "jackson (city)");
+        createSynapse(t.PRIMARY_INPUT_SYNAPSE_FROM_PATTERN_TEMPLATE, jacksonIN, jacksonCityBN, 10.0);
+        PatternNeuron jacksonCityEntity = initPatternLoop(t, "Entity: jackson (city)", jacksonCityBN);
+        updateBias(jacksonCityEntity, 3.0);
+
+        BindingNeuron cookSurnameBN = createNeuron(t.BINDING_TEMPLATE, "cook (surname)");
+        createSynapse(t.PRIMARY_INPUT_SYNAPSE_FROM_PATTERN_TEMPLATE, cookIN, cookSurnameBN, 10.0);
+        PatternNeuron cookSurnameEntity = initPatternLoop(t, "Entity: cook (surname)", cookSurnameBN);
+        updateBias(cookSurnameEntity, 3.0);
+        CategoryNeuron surnameCN = createNeuron(t.CATEGORY_TEMPLATE, "surname");
+        createSynapse(t.CATEGORY_SYNAPSE_TEMPLATE, cookSurnameEntity, surnameCN, 10.0);
+
+        BindingNeuron cookProfessionBN = createNeuron(t.BINDING_TEMPLATE, "cook (profession)");
+        createSynapse(t.PRIMARY_INPUT_SYNAPSE_FROM_PATTERN_TEMPLATE, cookIN, cookProfessionBN, 10.0);
+        PatternNeuron cookProfessionEntity = initPatternLoop(t, "Entity: cook (profession)", cookProfessionBN);
+        updateBias(cookProfessionEntity, 3.0);
+
+        initInhibitoryLoop(t, "jackson", jacksonForenameBN, jacksonCityBN);
+        initInhibitoryLoop(t, "cook", cookSurnameBN, cookProfessionBN);
+
+        updateBias(jacksonForenameBN, 2.0);
+        updateBias(jacksonCityBN, 3.0);
+        updateBias(cookSurnameBN, 2.0);
+        updateBias(cookProfessionBN, 3.0);
+
+        BindingNeuron forenameBN = createNeuron(t.BINDING_TEMPLATE, "forename (person name)");
+        createSynapse(t.PRIMARY_INPUT_SYNAPSE_FROM_PATTERN_TEMPLATE, forenameCN, forenameBN, 10.0);
+        BindingNeuron surnameBN = createNeuron(t.BINDING_TEMPLATE, "surname (person name)");
+        createSynapse(t.PRIMARY_INPUT_SYNAPSE_FROM_PATTERN_TEMPLATE, surnameCN, surnameBN, 10.0);
+        createSynapse(t.SAME_PATTERN_SYNAPSE_TEMPLATE, forenameBN, surnameBN, 10.0);
+
+        updateBias(forenameBN, 2.0);
+        updateBias(surnameBN, 2.0);
+
+        PatternNeuron personNamePattern = initPatternLoop(t, "person name", forenameBN, surnameBN);
+        updateBias(personNamePattern, 3.0);
+
+        return m;
+    }
+}
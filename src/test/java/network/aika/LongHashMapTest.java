@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.utils.LongHashMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Lukas Molzberger
+ */
+public class LongHashMapTest {
+
+    @Test
+    public void testPutGetAcrossResize() {
+        LongHashMap<String> m = new LongHashMap<>();
+        for(long k = -500; k < 500; k += 3)
+            assertNull(m.put(k * 1024, "v" + k));
+
+        assertEquals(334, m.size());
+        for(long k = -500; k < 500; k += 3)
+            assertEquals("v" + k, m.get(k * 1024));
+
+        assertNull(m.get(2048));
+        assertEquals("v1", m.put(1024, "x1"));
+        assertEquals("x1", m.get(1024));
+        assertEquals(334, m.size());
+
+        Set<Long> keys = new HashSet<>();
+        m.forEachKey(keys::add);
+        assertEquals(334, keys.size());
+
+        m.clear();
+        assertTrue(m.isEmpty());
+        assertNull(m.get(1024));
+        assertEquals("y", m.computeIfAbsent(7, k -> "y"));
+        assertEquals("y", m.computeIfAbsent(7, k -> "z"));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.metrics.FieldUpdateCounter;
+import network.aika.metrics.MetricsSnapshot;
+import network.aika.metrics.ModelMetrics;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static network.aika.utils.TestUtils.getConfig;
+import static network.aika.utils.TestUtils.processDocument;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+
+    @Test
+    public void testMetrics() throws Exception {
+        TextModel m = new TextModel();
+        m.init();
+
+        Document doc = process(m, "A B C ", true);
+
+        MetricsSnapshot s = doc.getMetricsSnapshot();
+        assertTrue(s.getProcessedSteps() > 0);
+        assertTrue(s.getStepCounts().containsKey("Linking"));
+        assertTrue(s.getStepNanos().get("Linking") > 0);
+        assertTrue(s.getMaxQueueDepths().get("PROCESSING") > 0);
+        assertEquals(3, s.getActivationsByNeuronType().get("PatternNeuron").longValue());
+        assertFalse(s.getLinksBySynapseType().isEmpty());
+        assertTrue(s.getFieldUpdates() > 0);
+
+        // Field updates are only counted while a step of a thought with metrics is processed.
+        assertFalse(FieldUpdateCounter.isEnabled());
+
+        doc.close();
+        process(m, "A B ", true).close();
+        process(m, "A C ", false).close();
+
+        ModelMetrics mm = m.getMetrics();
+        assertEquals(2, mm.getThoughts());
+        assertTrue(mm.getProcessedSteps() > s.getProcessedSteps());
+
+        mm.registerMBean("MetricsTest");
+        try {
+            Object thoughts = ManagementFactory.getPlatformMBeanServer().getAttribute(
+                    new ObjectName("network.aika:type=ModelMetrics,name=" + ObjectName.quote("MetricsTest")),
+                    "Thoughts"
+            );
+            assertEquals(2L, thoughts);
+        } finally {
+            mm.unregisterMBean();
+        }
+    }
+
+    @Test
+    public void testMetricsDisabled() {
+        TextModel m = new TextModel();
+        m.init();
+
+        Document doc = process(m, "A B ", false);
+
+        assertNull(doc.getMetrics());
+        assertEquals(0, doc.getMetricsSnapshot().getProcessedSteps());
+    }
+
+    private Document process(TextModel m, String txt, boolean metrics) {
+        return processDocument(m, txt,
+                getConfig()
+                        .setMetricsEnabled(metrics)
+        );
+    }
+}
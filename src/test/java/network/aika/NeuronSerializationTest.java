@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.neuron.Neuron;
+import network.aika.steps.activation.Save;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+
+import static network.aika.utils.TestUtils.getConfig;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Lukas Molzberger
+ */
+public class NeuronSerializationTest {
+
+    @Test
+    public void testWriteRead() throws Exception {
+        TextModel m = new TextModel();
+        m.init();
+
+        Neuron n = m.lookupToken("A");
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(baos)) {
+            n.write(dos);
+        }
+
+        Neuron readNeuron;
+        try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+            readNeuron = Neuron.read(dis, m);
+        }
+
+        assertEquals(n.getLabel(), readNeuron.getLabel());
+        assertEquals(n.getInputSynapses().count(), readNeuron.getInputSynapses().count());
+    }
+
+    /**
+     * A neuron that is being deserialized has no provider yet. It must neither be looked up in the coalescing index
+     * nor be scheduled to be saved by the current thought.
+     */
+    @Test
+    public void testReadDuringThoughtWithStepCoalescing() throws Exception {
+        TextModel m = new TextModel();
+        m.init();
+
+        Neuron n = m.lookupToken("A");
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(baos)) {
+            n.write(dos);
+        }
+
+        Document doc = new Document(m, "A ");
+        doc.setConfig(
+                getConfig()
+                        .setStepCoalescingEnabled(true)
+        );
+        assertSame(doc, m.getCurrentThought());
+
+        Neuron readNeuron;
+        try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+            readNeuron = Neuron.read(dis, m);
+        }
+
+        assertNull(readNeuron.getProvider());
+        assertTrue(doc.getQueue().stream().noneMatch(s -> s instanceof Save));
+        assertEquals(0, doc.getNumberOfMergedSteps());
+    }
+}
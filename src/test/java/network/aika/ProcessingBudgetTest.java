@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.steps.Phase;
+import network.aika.steps.ProcessingStatus;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static network.aika.Thought.NO_DEADLINE;
+import static network.aika.Thought.NO_STEP_LIMIT;
+import static network.aika.steps.ProcessingStatus.*;
+import static network.aika.utils.TestUtils.getConfig;
+import static network.aika.utils.TestUtils.toResultStrings;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Processes documents in time slices and checks that the result matches the unbounded processing.
+ */
+public class ProcessingBudgetTest {
+
+    private static final String TEXT = "A B C D ";
+
+    @Test
+    public void testStepLimit() {
+        Document unbounded = createDocument();
+        assertEquals(COMPLETED, unbounded.process(Phase.PROCESSING, NO_STEP_LIMIT, NO_DEADLINE));
+        assertEquals(COMPLETED, unbounded.processFinalMode(NO_STEP_LIMIT, NO_DEADLINE));
+
+        Document sliced = createDocument();
+        int slices = 0;
+        ProcessingStatus status;
+        do {
+            status = sliced.process(Phase.PROCESSING, 3, NO_DEADLINE);
+            slices++;
+
+            // The partially processed document can be queried between the slices.
+            assertNotNull(sliced.toString());
+        } while (status.isResumable());
+        assertEquals(COMPLETED, status);
+        assertTrue(slices > 1);
+
+        while ((status = sliced.processFinalMode(3, NO_DEADLINE)).isResumable())
+            assertTrue(sliced.isFinalMode());
+        assertEquals(COMPLETED, status);
+
+        assertEquals(toResultStrings(unbounded), toResultStrings(sliced));
+    }
+
+    @Test
+    public void testDeadline() {
+        Document doc = createDocument();
+        int queued = doc.getQueue().size();
+
+        assertEquals(DEADLINE_REACHED, doc.process(Phase.PROCESSING, NO_STEP_LIMIT, System.nanoTime() - 1));
+        assertEquals(queued, doc.getQueue().size());
+
+        long deadline = System.nanoTime() + 60_000_000_000L;
+        assertEquals(COMPLETED, doc.process(Phase.PROCESSING, NO_STEP_LIMIT, deadline));
+        assertTrue(doc.getQueue().stream().noneMatch(s -> s.getPhase() == Phase.PROCESSING));
+    }
+
+    @Test
+    public void testAbandon() {
+        Document doc = createDocument();
+        assertEquals(STEP_LIMIT_REACHED, doc.process(Phase.PROCESSING, 5, NO_DEADLINE));
+
+        int numberOfActivations = doc.getNumberOfActivations();
+        doc.abandon();
+
+        assertTrue(doc.isAbandoned());
+        assertTrue(doc.getQueue().isEmpty());
+        assertEquals(numberOfActivations, doc.getNumberOfActivations());
+        assertEquals(ABANDONED, doc.processFinalMode(NO_STEP_LIMIT, NO_DEADLINE));
+        assertFalse(doc.isFinalMode());
+    }
+
+    private Document createDocument() {
+        TextModel m = new TextModel();
+        m.init();
+
+        Document doc = new Document(m, TEXT);
+        doc.setConfig(getConfig());
+        doc.addTokens(Arrays.asList(TEXT.split(" ")));
+        return doc;
+    }
+}
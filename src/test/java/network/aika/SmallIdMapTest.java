@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.neuron.Synapse;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.activation.Link;
+import network.aika.neuron.conjunctive.BindingNeuron;
+import network.aika.neuron.conjunctive.PatternNeuron;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import network.aika.utils.SmallIdMap;
+import network.aika.utils.SmallIdPairMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static network.aika.utils.TestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Lukas Molzberger
+ */
+public class SmallIdMapTest {
+
+    @Test
+    public void testSortedOrderAcrossGrowth() {
+        SmallIdMap<String> m = new SmallIdMap<>();
+        for(int i = 20; i > 0; i--)
+            assertNull(m.put(i * 3, "v" + i * 3));
+
+        assertEquals(20, m.size());
+        assertEquals("v30", m.get(30));
+        assertNull(m.get(31));
+        assertEquals("v30", m.put(30, "x30"));
+
+        List<String> values = m.stream().collect(Collectors.toList());
+        assertEquals("v3", values.get(0));
+        assertEquals("x30", values.get(9));
+        assertEquals("v60", values.get(19));
+
+        assertFalse(m.remove(30, "v30"));
+        assertTrue(m.remove(30, "x30"));
+        assertFalse(m.containsKey(30));
+        assertEquals(19, m.size());
+    }
+
+    @Test
+    public void testNeuronRange() {
+        SmallIdPairMap<String> m = new SmallIdPairMap<>();
+        for(long n = 5; n > 0; n--)
+            for(int a = 0; a < 4; a++)
+                m.put(n, 10 - a, n + ":" + (10 - a));
+
+        assertEquals(
+                List.of("3:7", "3:8", "3:9", "3:10"),
+                m.stream(3).collect(Collectors.toList())
+        );
+        assertEquals(0, m.stream(6).count());
+
+        List<String> visited = new ArrayList<>();
+        m.forEach(5, visited::add);
+        assertEquals(List.of("5:7", "5:8", "5:9", "5:10"), visited);
+
+        assertTrue(m.containsNeuron(1));
+        assertFalse(m.containsNeuron(0));
+
+        for(int a = 7; a <= 10; a++)
+            assertTrue(m.remove(3, a, "3:" + a));
+
+        assertFalse(m.containsNeuron(3));
+        assertEquals(List.of("4:7"), m.stream(4).limit(1).collect(Collectors.toList()));
+        assertEquals(16, m.size());
+    }
+
+    @Test
+    public void testModificationWhileVisiting() {
+        SmallIdPairMap<String> m = new SmallIdPairMap<>();
+        m.put(1, 1, "1:1");
+        m.put(1, 2, "1:2");
+
+        assertThrows(ConcurrentModificationException.class, () ->
+                m.forEach(1, v -> m.put(1, 3, "1:3"))
+        );
+
+        // Like the iterators of the collections, a modification while visiting the last entry goes unnoticed.
+        m.forEach(1, v -> {
+            if(v.equals("1:3"))
+                m.put(2, 1, "2:1");
+        });
+        assertEquals(4, m.size());
+
+        assertThrows(ConcurrentModificationException.class, () ->
+                m.stream().forEach(v -> m.remove(2, 1, "2:1"))
+        );
+    }
+
+    @Test
+    public void testModificationWhileIterating() {
+        SmallIdMap<String> m = new SmallIdMap<>();
+        m.put(1, "1");
+        m.put(2, "2");
+        m.put(3, "3");
+
+        assertThrows(ConcurrentModificationException.class, () ->
+                m.forEach(v -> m.put(4, "4"))
+        );
+
+        // A removal would otherwise shift the remaining entries and skip one of them.
+        assertThrows(ConcurrentModificationException.class, () ->
+                m.stream().forEach(v -> m.remove(1))
+        );
+
+        // Replacing the value of an existing key is not a structural modification.
+        m.forEach(v -> m.put(2, "2'"));
+        assertEquals(List.of("2'", "3", "4"), m.stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testOutputLinksBySynapse() {
+        Activation<?> tokenAct = processJackson();
+
+        List<Link> outputLinks = tokenAct.getOutputLinks().collect(Collectors.toList());
+        assertTrue(outputLinks.size() > 1);
+
+        for(Link l: outputLinks) {
+            Synapse s = l.getSynapse();
+            List<Link> expected = outputLinks.stream()
+                    .filter(ol -> ol.getSynapse().getOutput() == s.getOutput())
+                    .collect(Collectors.toList());
+            assertEquals(expected, tokenAct.getOutputLinks(s).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testForEachOutputLink() {
+        Activation<?> tokenAct = processJackson();
+
+        for(Link l: tokenAct.getOutputLinks().collect(Collectors.toList())) {
+            List<Link> visited = new ArrayList<>();
+            tokenAct.forEachOutputLink(l.getSynapse(), visited::add);
+            assertEquals(tokenAct.getOutputLinks(l.getSynapse()).collect(Collectors.toList()), visited);
+            assertTrue(visited.contains(l));
+        }
+    }
+
+    /**
+     * Processes the token "Jackson", which activates the token category and a binding neuron.
+     *
+     * @return the token activation
+     */
+    private static Activation<?> processJackson() {
+        TextModel m = new TextModel();
+        m.setN(912);
+        m.init();
+        PatternNeuron jacksonIN = m.lookupToken("Jackson");
+        setStatistic(jacksonIN, 53.0, 299, 899l);
+        BindingNeuron jacksonBN = createNeuron(m.getTemplates().BINDING_TEMPLATE, "jackson");
+        createSynapse(m.getTemplates().PRIMARY_INPUT_SYNAPSE_FROM_PATTERN_TEMPLATE, jacksonIN, jacksonBN, 10.0);
+        updateBias(jacksonBN, 2.0);
+
+        Document doc = new Document(m, "Jackson");
+        doc.setConfig(getConfig());
+        doc.processTokens(List.of("Jackson"));
+
+        return doc.getActivations().stream()
+                .filter(act -> act.getNeuron() == jacksonIN)
+                .findFirst()
+                .orElseThrow();
+    }
+}
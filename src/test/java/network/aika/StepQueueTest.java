@@ -0,0 +1,361 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.callbacks.EventListener;
+import network.aika.callbacks.EventType;
+import network.aika.neuron.Neuron;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.activation.Element;
+import network.aika.neuron.activation.Timestamp;
+import network.aika.steps.*;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import network.aika.utils.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static network.aika.utils.TestUtils.getConfig;
+import static network.aika.utils.TestUtils.setStatistic;
+import static network.aika.utils.TestUtils.toResultStrings;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the {@link BucketStepQueue} hands out the steps in exactly the same order as the {@link TreeStepQueue}.
+ */
+public class StepQueueTest {
+
+    @Test
+    public void testRandomKeys() {
+        Random rnd = new Random(42);
+
+        StepQueue tree = new TreeStepQueue();
+        StepQueue bucket = new BucketStepQueue();
+
+        long ts = 0;
+        List<Step> removable = new ArrayList<>();
+        for(int round = 0; round < 20; round++) {
+            for(int i = 0; i < 500; i++) {
+                TestStep s = new TestStep(
+                        Phase.values()[rnd.nextInt(Phase.values().length)],
+                        randomFired(rnd, ts),
+                        LinkingOrder.values()[rnd.nextInt(LinkingOrder.values().length)]
+                );
+                s.setTimestamp(ts++);
+
+                tree.add(s);
+                bucket.add(s);
+                if(rnd.nextInt(10) == 0)
+                    removable.add(s);
+            }
+
+            for(Step s: removable) {
+                assertEquals(tree.remove(s), bucket.remove(s));
+                assertFalse(bucket.remove(s));
+            }
+            removable.clear();
+
+            assertEquals(new ArrayList<>(tree.getSteps()), new ArrayList<>(bucket.getSteps()));
+
+            for(int i = 0; i < 300; i++)
+                assertEquals(tree.poll(), bucket.poll());
+        }
+
+        while(!tree.isEmpty())
+            assertEquals(tree.poll(), bucket.poll());
+
+        assertTrue(bucket.isEmpty());
+    }
+
+    private static long randomFired(Random rnd, long ts) {
+        switch (rnd.nextInt(4)) {
+            case 0:
+                return Timestamp.NOT_SET;
+            case 1:
+                return Timestamp.MAX;
+            default:
+                return rnd.nextInt((int) ts + 1);
+        }
+    }
+
+    @Test
+    public void testSameStepOrderOnDocument() {
+        List<String> treeOrder = processDocument(TreeStepQueue::new);
+        List<String> bucketOrder = processDocument(BucketStepQueue::new);
+
+        assertTrue(treeOrder.size() > 0);
+        assertEquals(treeOrder, bucketOrder);
+    }
+
+    @Test
+    public void testStepsByElementAndCancel() {
+        TextModel m = new TextModel();
+        m.init();
+
+        Document doc = new Document(m, "A B ");
+        doc.setConfig(getConfig());
+
+        doc.addToken("A", 0, 1);
+        doc.addToken("B", 2, 3);
+
+        List<Step> pending = new ArrayList<>(doc.getQueue());
+        assertTrue(pending.size() > 0);
+
+        for(Step s: pending) {
+            List<Step> expected = pending.stream()
+                    .filter(ps -> ps.getElement() == s.getElement())
+                    .collect(Collectors.toList());
+            assertEquals(expected, doc.getStepsByElement(s.getElement()));
+        }
+
+        Element e = pending.get(0).getElement();
+        List<Step> cancelled = doc.cancelSteps(e);
+
+        assertTrue(cancelled.size() > 0);
+        assertTrue(doc.getStepsByElement(e).isEmpty());
+        assertEquals(pending.size() - cancelled.size(), doc.getQueue().size());
+        assertTrue(doc.getQueue().stream().noneMatch(s -> s.getElement() == e));
+
+        doc.process(Phase.POST_PROCESSING);
+        assertTrue(doc.getQueue().isEmpty());
+    }
+
+    @Test
+    public void testCancelWhileProcessingPendingSteps() {
+        TextModel m = new TextModel();
+        m.init();
+
+        Document doc = new Document(m, "A B ");
+        doc.setConfig(getConfig());
+
+        doc.addToken("A", 0, 1);
+        doc.addToken("B", 2, 3);
+
+        Element e = doc.getQueue().iterator().next().getElement();
+        assertTrue(doc.getStepsByElement(e).size() > 0);
+        CancellingStep cs = new CancellingStep(e);
+        Step.add(cs);
+        assertEquals(cs, doc.getStepsByElement(e).get(0));
+
+        doc.processPendingSteps(e);
+
+        assertTrue(cs.processed);
+        assertTrue(doc.getStepsByElement(e).isEmpty());
+        assertTrue(doc.getQueue().stream().noneMatch(s -> s.getElement() == e));
+    }
+
+    @Test
+    public void testNoCoalescingKeysWhenDisabled() {
+        TextModel m = new TextModel();
+        m.init();
+
+        Document doc = new Document(m, "A ");
+        doc.setConfig(getConfig());
+
+        doc.addToken("A", 0, 1);
+        Element e = doc.getQueue().iterator().next().getElement();
+
+        KeyedStep cancelled = new KeyedStep(e);
+        Step.add(cancelled);
+        doc.cancelSteps(e);
+
+        KeyedStep processed = new KeyedStep(e);
+        Step.add(processed);
+        doc.processPendingSteps(e);
+        doc.process(Phase.POST_PROCESSING);
+
+        assertEquals(0, processed.createdKeys);
+        assertEquals(0, cancelled.createdKeys);
+    }
+
+    @Test
+    public void testStepCoalescing() {
+        Document withoutCoalescing = processDocument("A B C D A B ", false);
+        Document withCoalescing = processDocument("A B C D A B ", true);
+
+        assertEquals(0, withoutCoalescing.getNumberOfMergedSteps());
+        assertTrue(withCoalescing.getNumberOfMergedSteps() > 0);
+
+        assertEquals(toResultStrings(withoutCoalescing), toResultStrings(withCoalescing));
+    }
+
+    private Document processDocument(String txt, boolean stepCoalescing) {
+        TextModel m = new TextModel();
+        m.init();
+
+        return TestUtils.processDocument(m, txt,
+                getConfig()
+                        .setStepCoalescingEnabled(stepCoalescing)
+        );
+    }
+
+    private List<String> processDocument(Supplier<StepQueue> queueFactory) {
+        TextModel m = new TextModel();
+
+        m.setN(912);
+        m.init();
+
+        Document doc = new Document(m, "A B C ");
+        doc.setStepQueue(queueFactory.get());
+        doc.setConfig(
+                getConfig()
+                        .setAlpha(0.99)
+                        .setLearnRate(-0.1)
+                        .setTrainingEnabled(true)
+        );
+
+        List<String> order = new ArrayList<>();
+        doc.addEventListener(new EventListener() {
+            @Override
+            public void beforeProcessedEvent(Step s) {
+                order.add(s.getStepName() + " " + s.getTimestamp() + " " + s);
+            }
+        }, EventType.BEFORE_PROCESSED);
+
+        doc.processTokens(Arrays.asList(doc.getContent().split(" ")));
+
+        Neuron nA = m.getNeuron("A");
+        setStatistic(nA, 53.0,299,899l);
+
+        Neuron nB = m.getNeuron("B");
+        setStatistic(nB, 10.0, 121, 739l);
+
+        doc.processFinalMode();
+        doc.postProcessing();
+
+        return order;
+    }
+
+    private static class TestElement extends Element<TestElement> {
+
+        private final long fired;
+
+        TestElement(long fired) {
+            this.fired = fired;
+        }
+
+        @Override
+        public long getFired() {
+            return fired;
+        }
+
+        @Override
+        public Thought getThought() {
+            return null;
+        }
+
+        @Override
+        public Config getConfig() {
+            return null;
+        }
+
+        @Override
+        public int compareTo(TestElement e) {
+            return 0;
+        }
+    }
+
+    private static class TestStep extends Step<TestElement> {
+
+        private final Phase phase;
+        private final LinkingOrder linkingOrder;
+
+        TestStep(Phase phase, long fired, LinkingOrder linkingOrder) {
+            super(new TestElement(fired));
+            this.phase = phase;
+            this.linkingOrder = linkingOrder;
+        }
+
+        @Override
+        public void process() {
+        }
+
+        @Override
+        public Phase getPhase() {
+            return phase;
+        }
+
+        @Override
+        public LinkingOrder getLinkingOrder() {
+            return linkingOrder;
+        }
+    }
+
+    /**
+     * Counts how often its coalescing key is created.
+     */
+    private static class KeyedStep extends Step<Element> {
+
+        private int createdKeys;
+
+        KeyedStep(Element e) {
+            super(e);
+        }
+
+        @Override
+        public void process() {
+        }
+
+        @Override
+        public Phase getPhase() {
+            return Phase.PROCESSING;
+        }
+
+        @Override
+        protected CoalescingKey createCoalescingKey() {
+            createdKeys++;
+            return new CoalescingKey(KeyedStep.class, getElement());
+        }
+    }
+
+    /**
+     * Cancels the other steps of its element, like the eviction of an activation that is processed right away.
+     */
+    private static class CancellingStep extends Step<Element> {
+
+        private boolean processed;
+
+        CancellingStep(Element e) {
+            super(e);
+            fired = Timestamp.NOT_SET;
+        }
+
+        @Override
+        public void process() {
+            processed = true;
+            getElement().getThought().cancelSteps(getElement());
+        }
+
+        @Override
+        public Phase getPhase() {
+            return Phase.PROCESSING;
+        }
+
+        @Override
+        public LinkingOrder getLinkingOrder() {
+            return LinkingOrder.PRE_FIRED;
+        }
+    }
+}
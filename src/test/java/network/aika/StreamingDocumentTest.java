@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.callbacks.EventListener;
+import network.aika.callbacks.EventType;
+import network.aika.neuron.activation.Activation;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import network.aika.text.WindowUnit;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static network.aika.utils.TestUtils.getConfig;
+import static network.aika.utils.TestUtils.toResultString;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Lukas Molzberger
+ */
+public class StreamingDocumentTest {
+
+    private static final String[] VOCABULARY = {"A", "B", "C", "D", "E", "F"};
+
+    @Test
+    public void testMemoryStaysBounded() {
+        TextModel m = new TextModel();
+        m.init();
+
+        Document doc = new Document(m, null);
+        doc.setConfig(getConfig().setTrainingEnabled(false));
+        doc.setStreamingWindow(4, WindowUnit.TOKENS);
+
+        List<Activation> evicted = new ArrayList<>();
+        doc.addEventListener(new EventListener() {
+            @Override
+            public void onActivationEvictionEvent(Activation act) {
+                assertEquals(1.0, act.getIsFinal().getCurrentValue());
+                evicted.add(act);
+            }
+        }, EventType.ACTIVATION_EVICTION);
+
+        Random rnd = new Random(3);
+        int maxActivations = 0;
+        for(int chunk = 0; chunk < 100; chunk++) {
+            List<String> tokens = new ArrayList<>();
+            for(int i = 0; i < 10; i++) {
+                String t = VOCABULARY[rnd.nextInt(VOCABULARY.length)];
+                tokens.add(t);
+                doc.append(t + " ");
+            }
+            doc.processTokens(tokens);
+            maxActivations = Math.max(maxActivations, doc.getNumberOfActivations());
+        }
+
+        assertTrue(maxActivations < 200, "max activations: " + maxActivations);
+        assertEquals(evicted.size(), doc.getEvictedActivations());
+        assertTrue(evicted.size() > 1000);
+        assertTrue(doc.getContentOffset() > 1000);
+        assertTrue(doc.getContent().length() < 100);
+        assertEquals(2000, doc.length());
+
+        for(Activation act: evicted)
+            assertNull(doc.getActivation(act.getId()));
+
+        doc.processFinalMode();
+        doc.close();
+    }
+
+    @Test
+    public void testSameResultsAsWithoutStreaming() {
+        TextModel m = new TextModel();
+        m.init();
+
+        List<String> tokens = new ArrayList<>();
+        Random rnd = new Random(5);
+        for(int i = 0; i < 40; i++)
+            tokens.add(VOCABULARY[rnd.nextInt(VOCABULARY.length)]);
+        String txt = String.join(" ", tokens) + " ";
+
+        Document doc = new Document(m, txt);
+        doc.setConfig(getConfig().setTrainingEnabled(false));
+        doc.processTokens(tokens);
+        doc.processFinalMode();
+
+        Map<Integer, String> expected = new TreeMap<>();
+        for(Activation act: doc.getActivations())
+            expected.put(act.getId(), toResultString(act));
+        doc.close();
+
+        Document streamingDoc = new Document(m, txt);
+        streamingDoc.setConfig(getConfig().setTrainingEnabled(false));
+        streamingDoc.setStreamingWindow(8, WindowUnit.CHARS);
+
+        Map<Integer, String> results = new TreeMap<>();
+        streamingDoc.addEventListener(new EventListener() {
+            @Override
+            public void onActivationEvictionEvent(Activation act) {
+                results.put(act.getId(), toResultString(act));
+            }
+        }, EventType.ACTIVATION_EVICTION);
+
+        streamingDoc.processTokens(tokens);
+        streamingDoc.processFinalMode();
+        for(Activation act: streamingDoc.getActivations())
+            results.put(act.getId(), toResultString(act));
+        streamingDoc.close();
+
+        assertTrue(streamingDoc.getEvictedActivations() > 0);
+        assertEquals(expected, results);
+    }
+
+    @Test
+    public void testArenaIsRejected() {
+        TextModel m = new TextModel();
+        m.init();
+
+        Document doc = new Document(m, null);
+        doc.setConfig(getConfig().setArenaEnabled(true));
+        assertThrows(IllegalStateException.class, () ->
+                doc.setStreamingWindow(4, WindowUnit.TOKENS)
+        );
+    }
+
+    @Test
+    public void testTextOfRetainedActivations() {
+        TextModel m = new TextModel();
+        m.init();
+
+        Document doc = new Document(m, "Alpha Beta Gamma Delta ");
+        doc.setConfig(getConfig().setTrainingEnabled(false));
+        doc.setStreamingWindow(7, WindowUnit.CHARS);
+
+        for(String t: List.of("Alpha", "Beta", "Gamma", "Delta")) {
+            doc.processTokens(List.of(t));
+
+            for(Activation act: doc.getActivations()) {
+                if(act.getRange() != null)
+                    assertEquals(act.getRange().length(), Document.getText(act).length());
+            }
+        }
+        assertTrue(doc.getEvictedActivations() > 0);
+
+        doc.processFinalMode();
+        doc.close();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.fields.Field;
+import network.aika.fields.PropagatePreCondition;
+import network.aika.metrics.FieldUpdateCounter;
+import network.aika.neuron.ActivationFunction;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static network.aika.fields.Fields.connect;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the propagation tolerances of fields and the bound used by the adaptive tolerance.
+ */
+public class ToleranceTest {
+
+    @Test
+    public void testUpdatesBelowToleranceAreHeldBack() {
+        FieldUpdateCounter.start();
+        try {
+            Field in = new Field(null, "in", 0.0);
+            in.setPropagatePreCondition(PropagatePreCondition.aboveTolerance(0.1));
+            Field out = new Field(null, "out");
+            connect(in, out);
+
+            long suppressed = FieldUpdateCounter.getSuppressed();
+            in.receiveUpdate(0, 0.05);
+            assertEquals(0.0, out.getCurrentValue());
+            assertEquals(1, FieldUpdateCounter.getSuppressed() - suppressed);
+
+            in.receiveUpdate(0, 0.06);
+            assertEquals(0.11, out.getCurrentValue(), 1e-12);
+            assertEquals(1, FieldUpdateCounter.getSuppressed() - suppressed);
+        } finally {
+            FieldUpdateCounter.stop();
+        }
+    }
+
+    @Test
+    public void testMaxChangeIsUpperBound() {
+        Random r = new Random(42);
+        for(ActivationFunction af: ActivationFunction.values()) {
+            for(int i = 0; i < 100000; i++) {
+                double cv = (r.nextDouble() * 8.0) - 4.0;
+                double nv = cv + ((r.nextDouble() - 0.5) * Math.pow(10.0, -r.nextInt(6)));
+
+                double change = Math.abs(af.f(nv) - af.f(cv));
+                assertTrue(change <= af.maxChange(cv, nv, af.f(cv)) + 1e-15, af + " cv:" + cv + " nv:" + nv);
+            }
+        }
+    }
+}